@@ -1,42 +1,66 @@
 package com.practical.myblog.config;
 
 import com.practical.myblog.exception.UserValidationException;
+import com.practical.myblog.model.User;
 import com.practical.myblog.repository.UserRepository;
+import com.practical.myblog.security.BoundedPasswordEncoder;
+import com.practical.myblog.security.CachedUserDetailsService;
 import com.practical.myblog.util.ErrorMessages;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.security.user-cache.maximum-size}")
+    private long userCacheMaximumSize;
+
+    @Value("${application.security.user-cache.ttl}")
+    private Duration userCacheTtl;
+
+    @Value("${application.security.password.bcrypt-strength}")
+    private int bcryptStrength;
+
+    @Value("${application.security.password.hashing-threads}")
+    private int hashingThreads;
+
+    @Value("${application.security.password.hashing-queue-capacity}")
+    private int hashingQueueCapacity;
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserValidationException(ErrorMessages.USER_NOT_FOUND_WITH_USERNAME + username));
+    public CachedUserDetailsService userDetailsService() {
+        return new CachedUserDetailsService(this::findUser, meterRegistry, userCacheMaximumSize, userCacheTtl);
     }
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
+        // Login needs the stored password, so it bypasses the cached user details
+        authProvider.setUserDetailsService(this::findUser);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Stores a new hash after a successful login when the BCrypt strength has changed
+        authProvider.setUserDetailsPasswordService(this::updatePassword);
         return authProvider;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(bcryptStrength, hashingThreads, hashingQueueCapacity);
     }
 
     @Bean
@@ -44,4 +68,16 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    private UserDetails findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserValidationException(ErrorMessages.USER_NOT_FOUND_WITH_USERNAME + username));
+    }
+
+    private UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        // findUser always returns the User entity
+        User user = (User) userDetails;
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
+
 }
@@ -0,0 +1,89 @@
+package com.practical.myblog.config;
+
+import com.practical.myblog.model.Post;
+import com.practical.myblog.util.CompressedTextConverter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Copies the texts of the old post.text column to post_body for posts that don't have a body yet.
+ * The old column is kept, dropping it is a separate step of the operator (see the README).
+ * Old and new versions can't run side by side, the upgrade needs a downtime: old instances write no body rows
+ * and take post ids from the IDENTITY column, which PostIdSequenceAligner only catches up with at startup.
+ * Runs once the schema is updated (it depends on the EntityManagerFactory) and before the web server accepts requests.
+ * Each chunk is copied in its own transaction and only posts without a body are read,
+ * so an interrupted migration continues where it stopped on the next start.
+ */
+@Slf4j
+@Component
+public class PostBodyMigrator implements InitializingBean {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    public PostBodyMigrator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!hasTextColumn()) {
+            return;
+        }
+        long started = System.nanoTime();
+        long migrated = 0;
+        int copied;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> copyChunk());
+            copied = chunk == null ? 0 : chunk;
+            migrated += copied;
+        } while (copied == CHUNK_SIZE);
+
+        log.info("Copied the text of {} posts to post_body in {} ms", migrated, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int copyChunk() {
+        List<Object[]> rows = jdbcTemplate.query("""
+                SELECT p.id, p.text FROM post p
+                WHERE NOT EXISTS (SELECT 1 FROM post_body b WHERE b.post_id = p.id)
+                ORDER BY p.id LIMIT ?
+                """, (ResultSet rs, int rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, CHUNK_SIZE);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO post_body (post_id, text) VALUES (?, ?)", rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, (Long) row[0]);
+            ps.setBytes(2, converter.convertToDatabaseColumn((String) row[1]));
+        });
+        jdbcTemplate.batchUpdate("UPDATE post SET excerpt = ? WHERE id = ?", rows, rows.size(), (ps, row) -> {
+            ps.setString(1, Post.excerptOf((String) row[1]));
+            ps.setLong(2, (Long) row[0]);
+        });
+        return rows.size();
+    }
+
+    private boolean hasTextColumn() {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet columns = connection.getMetaData()
+                    .getColumns(connection.getCatalog(), connection.getSchema(), "post", "text")) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
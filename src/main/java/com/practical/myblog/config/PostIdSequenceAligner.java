@@ -0,0 +1,49 @@
+package com.practical.myblog.config;
+
+import com.practical.myblog.model.Post;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the post id sequence past the ids that were generated by the old IDENTITY column.
+ * Runs once the schema is updated (it depends on the EntityManagerFactory) and before the web server accepts requests.
+ * With the pooled optimizer the sequence value is the upper end of the next block of ids,
+ * so it is set to the highest id plus the allocation size.
+ */
+@Slf4j
+@Component
+public class PostIdSequenceAligner implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostIdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM post", Long.class);
+        long target = (maxId == null ? 0 : maxId) + Post.ID_ALLOCATION_SIZE;
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+
+        if ("PostgreSQL".equals(database)) {
+            Long current = jdbcTemplate.queryForObject("SELECT last_value FROM post_seq", Long.class);
+            if (current != null && current < target) {
+                jdbcTemplate.queryForObject("SELECT setval('post_seq', ?, false)", Long.class, target);
+                log.info("Post id sequence moved from {} to {}", current, target);
+            }
+        } else if ("MySQL".equals(database)) {
+            // MySQL has no sequences, Hibernate keeps the next value in a single row table
+            int updated = jdbcTemplate.update("UPDATE post_seq SET next_val = ? WHERE next_val < ?", target, target);
+            if (updated > 0) {
+                log.info("Post id sequence table moved to {}", target);
+            }
+        } else {
+            log.warn("Post id sequence is not aligned on database: {}", database);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.practical.myblog.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -28,6 +29,7 @@ public class SecurityConfig {
             "/tags/**",
             "/users/login",
             "/users/register",
+            "/users/refresh",
             // Allow access to Swagger UI
             "/v3/api-docs/**",
             "/swagger-ui/**",
@@ -40,6 +42,11 @@ public class SecurityConfig {
                 // Disable CSRF (CSRF protects state-changing operations)
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
+                        // Bulk import and export are not covered by the post white list
+                        .requestMatchers(HttpMethod.POST, "/posts/import").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/posts/export").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/posts/tags/bulk").authenticated()
+                        .requestMatchers(HttpMethod.DELETE, "/posts", "/tags").authenticated()
                         // Allow all requests in the white list
                         .requestMatchers(WHITE_LIST_URL).permitAll()
                         // All other requests must be authenticated
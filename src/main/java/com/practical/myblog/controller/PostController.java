@@ -1,15 +1,37 @@
 package com.practical.myblog.controller;
 
+import com.practical.myblog.dto.BulkDeleteResponseDTO;
+import com.practical.myblog.dto.BulkPostDeleteRequestDTO;
+import com.practical.myblog.dto.BulkTagOperationRequestDTO;
+import com.practical.myblog.dto.BulkTagOperationResponseDTO;
+import com.practical.myblog.dto.CursorPageResponseDTO;
+import com.practical.myblog.dto.PopularPostDTO;
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostImportResultDTO;
+import com.practical.myblog.dto.PostPatchRequestDTO;
 import com.practical.myblog.dto.PostRequestDTO;
 import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.dto.PostVersion;
 import com.practical.myblog.dto.TagRequestDTO;
 import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.service.BulkDeleteServiceImpl;
+import com.practical.myblog.service.PostExportServiceImpl;
+import com.practical.myblog.service.PostImportServiceImpl;
 import com.practical.myblog.service.PostServiceImpl;
+import com.practical.myblog.service.PostViewCounter;
+import com.practical.myblog.util.ETags;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -17,22 +39,82 @@ import java.util.Set;
 public class PostController {
 
     private final PostServiceImpl postServiceImpl;
+    private final PostImportServiceImpl postImportServiceImpl;
+    private final PostExportServiceImpl postExportServiceImpl;
+    private final BulkDeleteServiceImpl bulkDeleteServiceImpl;
+    private final PostViewCounter postViewCounter;
 
-    public PostController(PostServiceImpl postServiceImpl) {
+    public PostController(
+            PostServiceImpl postServiceImpl,
+            PostImportServiceImpl postImportServiceImpl,
+            PostExportServiceImpl postExportServiceImpl,
+            BulkDeleteServiceImpl bulkDeleteServiceImpl,
+            PostViewCounter postViewCounter
+    ) {
         this.postServiceImpl = postServiceImpl;
+        this.postImportServiceImpl = postImportServiceImpl;
+        this.postExportServiceImpl = postExportServiceImpl;
+        this.bulkDeleteServiceImpl = bulkDeleteServiceImpl;
+        this.postViewCounter = postViewCounter;
     }
 
+    // fields=id,title limits the posts to these properties, the other columns are not read from the database
     @GetMapping
-    public Page<PostResponseDTO> getPosts(
+    public Page<? extends PostVersion> getPosts(
             @RequestParam(defaultValue = "0") int pageNo,
-            @RequestParam(defaultValue = "10") int pageSize
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTags,
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        Set<PostField> postFields = fields == null ? null : PostField.parse(fields);
+        Page<? extends PostVersion> posts = postFields == null
+                ? postServiceImpl.getAllPosts(pageNo, pageSize, includeTags)
+                : postServiceImpl.getAllPostFields(postFields, pageNo, pageSize, includeTags);
+        // Returning null after a match sends 304 without serializing the body
+        if (request.checkNotModified(ETags.ofPostPage(posts.getContent(), includeTags, postFields, posts.getTotalElements()))) {
+            return null;
+        }
+        return posts;
+    }
+
+    @GetMapping("/cursor")
+    public CursorPageResponseDTO<? extends PostVersion> getPostsAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTags,
+            @RequestParam(required = false) String fields,
+            WebRequest request
     ) {
-        return postServiceImpl.getAllPosts(pageNo, pageSize);
+        Set<PostField> postFields = fields == null ? null : PostField.parse(fields);
+        CursorPageResponseDTO<? extends PostVersion> posts = postFields == null
+                ? postServiceImpl.getPostsAfter(cursor, pageSize, includeTags)
+                : postServiceImpl.getPostFieldsAfter(postFields, cursor, pageSize, includeTags);
+        if (request.checkNotModified(ETags.ofPostPage(posts.getContent(), includeTags, postFields, posts.getNextCursor()))) {
+            return null;
+        }
+        return posts;
+    }
+
+    // Served from memory, refreshed with every flush of the view counters
+    @GetMapping("/popular")
+    public List<PopularPostDTO> getPopularPosts(@RequestParam(defaultValue = "10") int limit) {
+        return postViewCounter.getMostViewed(limit);
     }
 
     @GetMapping("/{id}")
-    public PostResponseDTO getPost(@PathVariable Long id) {
-        return postServiceImpl.getPost(id);
+    public PostResponseDTO getPost(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeTags,
+            WebRequest request
+    ) {
+        PostResponseDTO post = postServiceImpl.getPost(id, includeTags);
+        // Revalidated copies count as views too
+        postViewCounter.recordView(id);
+        if (request.checkNotModified(ETags.ofPost(post, includeTags), ETags.lastModified(post.getUpdatedAt()))) {
+            return null;
+        }
+        return post;
     }
 
     @PostMapping
@@ -40,9 +122,47 @@ public class PostController {
         return postServiceImpl.addPost(postRequestDTO);
     }
 
+    // The body is read as a stream, one post per line
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public PostImportResultDTO importPosts(InputStream body) throws IOException {
+        return postImportServiceImpl.importPosts(body);
+    }
+
+    // Written on an async thread while the posts are read, one post per line
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPosts() {
+        StreamingResponseBody body = postExportServiceImpl::exportPosts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=posts.ndjson")
+                .body(body);
+    }
+
+    // If-Match takes an ETag of the post, the update is rejected with 409 when the post changed since
     @PutMapping("/{id}")
-    public PostResponseDTO updatePost(@PathVariable Long id, @Validated @RequestBody PostRequestDTO postRequestDTO){
-        return postServiceImpl.updatePost(id, postRequestDTO);
+    public ResponseEntity<PostResponseDTO> updatePost(
+            @PathVariable Long id,
+            @Validated @RequestBody PostRequestDTO postRequestDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        PostResponseDTO post = postServiceImpl.updatePost(id, postRequestDTO, ETags.postVersion(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETags.ofPost(post, false)).body(post);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<PostResponseDTO> patchPost(
+            @PathVariable Long id,
+            @Validated @RequestBody PostPatchRequestDTO patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        PostResponseDTO post = postServiceImpl.patchPost(id, patch, ETags.postVersion(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETags.ofPost(post, false)).body(post);
+    }
+
+    // Ids or a tag name in the body, deleted in chunks of separate transactions
+    @DeleteMapping
+    public BulkDeleteResponseDTO deletePosts(@Validated @RequestBody BulkPostDeleteRequestDTO request) {
+        return bulkDeleteServiceImpl.deletePosts(request);
     }
 
     @DeleteMapping("/{postId}")
@@ -68,22 +188,80 @@ public class PostController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/tags/bulk")
+    public BulkTagOperationResponseDTO applyTagOperation(@Validated @RequestBody BulkTagOperationRequestDTO request) {
+        return postServiceImpl.applyTagOperation(request);
+    }
+
     @GetMapping("/tag")
-    public Page<PostResponseDTO> getAllPostsForTag(
+    public Page<? extends PostVersion> getAllPostsForTag(
             @RequestParam("tagName") String tagName,
             @RequestParam(defaultValue = "0") int pageNo,
-            @RequestParam(defaultValue = "10") int pageSize
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTags,
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        Set<PostField> postFields = fields == null ? null : PostField.parse(fields);
+        Page<? extends PostVersion> posts = postFields == null
+                ? postServiceImpl.getAllPostsForTag(tagName, pageNo, pageSize, includeTags)
+                : postServiceImpl.getAllPostFieldsForTag(postFields, tagName, pageNo, pageSize, includeTags);
+        if (request.checkNotModified(ETags.ofPostPage(posts.getContent(), includeTags, postFields, posts.getTotalElements()))) {
+            return null;
+        }
+        return posts;
+    }
+
+    @GetMapping("/tags")
+    public Page<PostResponseDTO> getAllPostsForTags(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(defaultValue = "0") int pageNo,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTags,
+            WebRequest request
+    ) {
+        var posts = postServiceImpl.getAllPostsForTags(all, any, none, pageNo, pageSize, includeTags);
+        if (request.checkNotModified(ETags.ofPostPage(posts.getContent(), includeTags, null, posts.getTotalElements()))) {
+            return null;
+        }
+        return posts;
+    }
+
+    @GetMapping("/tag/cursor")
+    public CursorPageResponseDTO<? extends PostVersion> getPostsForTagAfter(
+            @RequestParam("tagName") String tagName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTags,
+            @RequestParam(required = false) String fields,
+            WebRequest request
     ) {
-        return postServiceImpl.getAllPostsForTag(tagName, pageNo, pageSize);
+        Set<PostField> postFields = fields == null ? null : PostField.parse(fields);
+        CursorPageResponseDTO<? extends PostVersion> posts = postFields == null
+                ? postServiceImpl.getPostsForTagAfter(tagName, cursor, pageSize, includeTags)
+                : postServiceImpl.getPostFieldsForTagAfter(postFields, tagName, cursor, pageSize, includeTags);
+        if (request.checkNotModified(ETags.ofPostPage(posts.getContent(), includeTags, postFields, posts.getNextCursor()))) {
+            return null;
+        }
+        return posts;
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<PostResponseDTO>> searchByKeyword(
+    public ResponseEntity<Page<? extends PostVersion>> searchByKeyword(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int pageNo,
-            @RequestParam(defaultValue = "10") int pageSize
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String fields
     ) {
-        Page<PostResponseDTO> posts = postServiceImpl.searchByKeyword(keyword, pageNo, pageSize);
-        return ResponseEntity.ok(posts);
+        Set<PostField> postFields = fields == null ? null : PostField.parse(fields);
+        Page<? extends PostVersion> posts = postFields == null
+                ? postServiceImpl.searchByKeyword(keyword, pageNo, pageSize)
+                : postServiceImpl.searchFieldsByKeyword(postFields, keyword, pageNo, pageSize);
+        // ResponseEntity validators are checked against the request by Spring, a match is answered with 304
+        return ResponseEntity.ok()
+                .eTag(ETags.ofPostPage(posts.getContent(), false, postFields, posts.getTotalElements()))
+                .body(posts);
     }
 }
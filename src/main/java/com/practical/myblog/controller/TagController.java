@@ -1,12 +1,19 @@
 package com.practical.myblog.controller;
 
+import com.practical.myblog.dto.BulkDeleteResponseDTO;
+import com.practical.myblog.dto.BulkTagDeleteRequestDTO;
+import com.practical.myblog.dto.TagPostCountDTO;
 import com.practical.myblog.dto.TagRequestDTO;
 import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.service.BulkDeleteServiceImpl;
+import com.practical.myblog.service.TagPostCounts;
 import com.practical.myblog.service.TagServiceImpl;
+import com.practical.myblog.util.ETags;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,22 +22,42 @@ import java.util.List;
 public class TagController {
 
     private final TagServiceImpl tagServiceImpl;
+    private final BulkDeleteServiceImpl bulkDeleteServiceImpl;
+    private final TagPostCounts tagPostCounts;
 
-    public TagController(TagServiceImpl tagServiceImpl) {
+    public TagController(TagServiceImpl tagServiceImpl, BulkDeleteServiceImpl bulkDeleteServiceImpl, TagPostCounts tagPostCounts) {
         this.tagServiceImpl = tagServiceImpl;
+        this.bulkDeleteServiceImpl = bulkDeleteServiceImpl;
+        this.tagPostCounts = tagPostCounts;
     }
 
     @GetMapping
     public Page<TagResponseDTO> getTags(
             @RequestParam(defaultValue = "0") int pageNo,
-            @RequestParam(defaultValue = "10") int pageSize
+            @RequestParam(defaultValue = "10") int pageSize,
+            WebRequest request
     ) {
-        return tagServiceImpl.getAllTags(pageNo, pageSize);
+        Page<TagResponseDTO> tags = tagServiceImpl.getAllTags(pageNo, pageSize);
+        // Returning null after a match sends 304 without serializing the body
+        if (request.checkNotModified(ETags.ofTagPage(tags.getContent(), tags.getTotalElements()))) {
+            return null;
+        }
+        return tags;
+    }
+
+    // Tags with the most posts, served from counts kept in memory
+    @GetMapping("/cloud")
+    public List<TagPostCountDTO> getTagCloud(@RequestParam(defaultValue = "50") int limit) {
+        return tagPostCounts.getTop(limit);
     }
 
     @GetMapping("/{id}")
-    public TagResponseDTO getTag(@PathVariable Long id) {
-        return tagServiceImpl.getTag(id);
+    public TagResponseDTO getTag(@PathVariable Long id, WebRequest request) {
+        TagResponseDTO tag = tagServiceImpl.getTag(id);
+        if (request.checkNotModified(ETags.ofTag(tag), ETags.lastModified(tag.getUpdatedAt()))) {
+            return null;
+        }
+        return tag;
     }
 
     @PostMapping
@@ -43,6 +70,11 @@ public class TagController {
         return tagServiceImpl.updateTagName(id, tagRequestDTO);
     }
 
+    @DeleteMapping
+    public BulkDeleteResponseDTO deleteTags(@Validated @RequestBody BulkTagDeleteRequestDTO request) {
+        return bulkDeleteServiceImpl.deleteTags(request);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTag(@PathVariable Long id) {
         tagServiceImpl.deleteTag(id);
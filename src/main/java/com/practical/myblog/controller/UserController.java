@@ -2,9 +2,11 @@ package com.practical.myblog.controller;
 
 import com.practical.myblog.dto.AuthenticationRequestDTO;
 import com.practical.myblog.dto.AuthenticationResponseDTO;
+import com.practical.myblog.dto.RefreshTokenRequestDTO;
 import com.practical.myblog.dto.UserRequestDTO;
 import com.practical.myblog.dto.UserResponseDTO;
 import com.practical.myblog.service.UserServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
@@ -41,13 +43,19 @@ public class UserController {
         return ResponseEntity.ok("Reached secured endpoint");
     }
 
+    // The remote address is the client behind the proxy, see server.forward-headers-strategy
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponseDTO> authenticate(@RequestBody AuthenticationRequestDTO request) {
-        return ResponseEntity.ok(userServiceImpl.authenticateUser(request));
+    public ResponseEntity<AuthenticationResponseDTO> authenticate(@RequestBody AuthenticationRequestDTO request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(userServiceImpl.authenticateUser(request, httpRequest.getRemoteAddr()));
     }
 
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponseDTO> register(@RequestBody UserRequestDTO request) {
         return ResponseEntity.ok(userServiceImpl.registerUser(request));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponseDTO> refresh(@RequestBody RefreshTokenRequestDTO request) {
+        return ResponseEntity.ok(userServiceImpl.refreshToken(request));
+    }
 }
@@ -12,4 +12,6 @@ import lombok.NoArgsConstructor;
 public class AuthenticationResponseDTO {
 
     private String token;
+
+    private String refreshToken;
 }
@@ -0,0 +1,13 @@
+package com.practical.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResponseDTO {
+
+    private long deleted;
+}
@@ -0,0 +1,24 @@
+package com.practical.myblog.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selects the posts to delete, either by ids or by a tag name, not both
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPostDeleteRequestDTO {
+
+    @Size(max = 10000, message = "At most 10000 posts can be deleted by id at once")
+    private List<@NotNull Long> ids;
+
+    @Size(max = 20, message = "Tag length must be less than 20 characters")
+    private String tagName;
+}
@@ -0,0 +1,20 @@
+package com.practical.myblog.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTagDeleteRequestDTO {
+
+    @NotEmpty
+    @Size(max = 1000, message = "At most 1000 tags can be deleted at once")
+    private List<@NotNull Long> ids;
+}
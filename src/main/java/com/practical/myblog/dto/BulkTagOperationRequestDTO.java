@@ -0,0 +1,26 @@
+package com.practical.myblog.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTagOperationRequestDTO {
+
+    @NotNull
+    private TagOperation operation;
+
+    @NotEmpty
+    @Size(max = 1000, message = "At most 1000 posts can be updated at once")
+    private List<@NotNull Long> postIds;
+
+    @NotEmpty
+    private List<@NotEmpty @Size(max = 20, message = "Tag length must be less than 20 characters") String> tags;
+}
@@ -0,0 +1,15 @@
+package com.practical.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTagOperationResponseDTO {
+
+    private TagOperation operation;
+    // Number of post_tag rows inserted or deleted, pairs that were already in the requested state are not counted
+    private int changedRows;
+}
@@ -0,0 +1,50 @@
+package com.practical.myblog.dto;
+
+import com.practical.myblog.exception.PostValidationException;
+import com.practical.myblog.util.ErrorMessages;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Post columns that can be requested with the fields parameter of the list endpoints
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PostField {
+    ID("id", "id"),
+    TITLE("title", "title"),
+    // Whole text from the body row, only joined when it is requested
+    TEXT("text", "body.text"),
+    EXCERPT("excerpt", "excerpt"),
+    IMAGE_URL("imageUrl", "imageUrl"),
+    VIDEO_URL("videoUrl", "videoUrl");
+
+    // Name of the JSON property
+    private final String property;
+    // Path of the Post attribute it is read from, associations on the way are left joined
+    private final String attribute;
+
+    /**
+     * @param fields Comma separated property names, e.g. "id,title"
+     * @return Requested fields, always with the id
+     * @throws PostValidationException for an unknown property name
+     */
+    public static Set<PostField> parse(String fields) {
+        Set<PostField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String property = name.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                    .filter(field -> field.property.equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new PostValidationException(ErrorMessages.UNKNOWN_POST_FIELD + property)));
+        }
+        return parsed;
+    }
+}
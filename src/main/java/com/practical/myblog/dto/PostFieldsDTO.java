@@ -0,0 +1,30 @@
+package com.practical.myblog.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Post with only the requested fields, serialized as if the others didn't exist
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostFieldsDTO implements PostVersion {
+
+    @JsonIgnore
+    private Long id;
+    @JsonIgnore
+    private Long version;
+    // Property name to value, in PostField order, plus "tags" when they are requested
+    private Map<String, Object> fields;
+
+    @JsonAnyGetter
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,15 @@
+package com.practical.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostImportErrorDTO {
+
+    // Line number in the NDJSON input, starting from 1
+    private long line;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.practical.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostImportResultDTO {
+
+    private long imported;
+    private long failed;
+    private List<PostImportErrorDTO> errors;
+    // True when more records failed than the errors list holds
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,24 @@
+package com.practical.myblog.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial post update, fields left out (null) keep their current value
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPatchRequestDTO {
+
+    @Size(max = 60, message = "Title length must be less than 60 characters")
+    private String title;
+
+    @Size(max = 100_000, message = "Post length must be less than 100000 characters")
+    private String text;
+
+    private String imageUrl;
+    private String videoUrl;
+}
@@ -15,7 +15,7 @@ public class PostRequestDTO {
     @Size(max = 60, message = "Title length must be less than 60 characters")
     private String title;
 
-    @Size(max = 1000, message = "Post length must be less than 1000 characters")
+    @Size(max = 100_000, message = "Post length must be less than 100000 characters")
     private String text;
 
     private String imageUrl;
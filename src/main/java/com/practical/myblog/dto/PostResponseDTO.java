@@ -1,17 +1,52 @@
 package com.practical.myblog.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+import java.util.Set;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class PostResponseDTO {
+public class PostResponseDTO implements PostVersion {
 
     private Long id;
     private String title;
+    // Whole text, only read for a single post. Lists leave it null and return the excerpt
     private String text;
+    private String excerpt;
     private String imageUrl;
     private String videoUrl;
-}
\ No newline at end of file
+    // Tag names, only filled when they are requested with includeTags
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Set<String> tags;
+    // Validators for conditional requests, sent as ETag and Last-Modified headers instead of in the body
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Instant updatedAt;
+
+    public PostResponseDTO(Long id, String title, String text, String imageUrl, String videoUrl) {
+        this(id, title, text, null, imageUrl, videoUrl, null, null, null);
+    }
+
+    public PostResponseDTO(Long id, String title, String text, String imageUrl, String videoUrl, Long version, Instant updatedAt) {
+        this(id, title, text, null, imageUrl, videoUrl, null, version, updatedAt);
+    }
+
+    // Used by the single post read in PostRepository
+    public PostResponseDTO(Long id, String title, String text, String excerpt, String imageUrl, String videoUrl,
+                           Long version, Instant updatedAt) {
+        this(id, title, text, excerpt, imageUrl, videoUrl, null, version, updatedAt);
+    }
+
+    // Used by the list queries in PostRepository, they read the excerpt and not the text
+    public PostResponseDTO(Long id, String title, String imageUrl, String videoUrl, Long version, Instant updatedAt,
+                           String excerpt) {
+        this(id, title, null, excerpt, imageUrl, videoUrl, null, version, updatedAt);
+    }
+}
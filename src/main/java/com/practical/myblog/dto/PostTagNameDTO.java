@@ -0,0 +1,14 @@
+package com.practical.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostTagNameDTO {
+
+    private Long postId;
+    private String tagName;
+}
@@ -0,0 +1,11 @@
+package com.practical.myblog.dto;
+
+/**
+ * Post rows that carry their version, used to build ETags of pages
+ */
+public interface PostVersion {
+
+    Long getId();
+
+    Long getVersion();
+}
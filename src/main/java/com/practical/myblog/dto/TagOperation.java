@@ -0,0 +1,6 @@
+package com.practical.myblog.dto;
+
+public enum TagOperation {
+    ATTACH,
+    DETACH
+}
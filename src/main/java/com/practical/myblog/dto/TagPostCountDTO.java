@@ -0,0 +1,15 @@
+package com.practical.myblog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagPostCountDTO {
+
+    private Long id;
+    private String name;
+    private Long postCount;
+}
@@ -1,9 +1,12 @@
 package com.practical.myblog.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,4 +14,13 @@ public class TagResponseDTO {
 
     private Long id;
     private String name;
+    // Validators for conditional requests, sent as ETag and Last-Modified headers instead of in the body
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Instant updatedAt;
+
+    public TagResponseDTO(Long id, String name) {
+        this(id, name, null, null);
+    }
 }
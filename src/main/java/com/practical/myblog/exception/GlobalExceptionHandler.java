@@ -16,6 +16,13 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(PostConflictException.class)
+    public ResponseEntity<String> handlePostConflictException(PostConflictException exception) {
+        // Expected under concurrent edits, the client reloads and retries
+        log.warn("Post update conflict: {}", exception.getMessage());
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(TagValidationException.class)
     public ResponseEntity<String> handleTagValidationException(TagValidationException exception) {
         log.error("Tag entity error occurred: ", exception);
@@ -28,4 +35,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(exception.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<String> handleLoginThrottledException(LoginThrottledException exception) {
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> handlePasswordHashingBusyException(PasswordHashingBusyException exception) {
+        log.warn("Password hashing queue is full");
+        return new ResponseEntity<>(exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
 }
@@ -0,0 +1,8 @@
+package com.practical.myblog.exception;
+
+public class LoginThrottledException extends RuntimeException {
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
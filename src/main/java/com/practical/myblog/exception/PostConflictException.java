@@ -0,0 +1,8 @@
+package com.practical.myblog.exception;
+
+public class PostConflictException extends RuntimeException {
+
+    public PostConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,58 @@
+package com.practical.myblog.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one summary line for a sample of the requests, instead of logging every step of every request.
+ * Server errors are always logged. Only the method, path, status and duration are written,
+ * headers and query strings are left out because they can carry tokens.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    private final double sampleRate;
+
+    public RequestSummaryFilter(@Value("${application.logging.request-summary.sample-rate}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+            if (status >= 500 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                log.info("method={} path={} status={} durationMs={}",
+                        request.getMethod(),
+                        request.getRequestURI(),
+                        status,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+}
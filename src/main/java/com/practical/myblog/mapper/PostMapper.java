@@ -0,0 +1,42 @@
+package com.practical.myblog.mapper;
+
+import com.practical.myblog.dto.PostRequestDTO;
+import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.model.Post;
+import com.practical.myblog.model.PostBody;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.util.List;
+
+/**
+ * Post mappings generated at compile time, used where entities are already loaded.
+ * List endpoints select straight into PostResponseDTO in PostRepository instead.
+ */
+@Mapper(componentModel = "spring", imports = PostBody.class)
+public interface PostMapper {
+
+    // Tag names are loaded separately with PostRepository.findTagNamesByPostIds when requested.
+    // Like the list endpoints it returns the excerpt without the text, the body is not loaded
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "text", ignore = true)
+    PostResponseDTO toResponse(Post post);
+
+    List<PostResponseDTO> toResponses(List<Post> posts);
+
+    // Response with the whole text, for posts whose body is loaded anyway
+    @Named("withBody")
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "text", source = "body.text")
+    PostResponseDTO toResponseWithBody(Post post);
+
+    // The body gets the id of the post once the post is persisted
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "excerpt", expression = "java(Post.excerptOf(postRequestDTO.getText()))")
+    @Mapping(target = "body", expression = "java(new PostBody(null, postRequestDTO.getText()))")
+    Post toEntity(PostRequestDTO postRequestDTO);
+}
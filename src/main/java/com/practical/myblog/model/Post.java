@@ -1,41 +1,93 @@
 package com.practical.myblog.model;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 @Indexed
 public class Post {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+    // Characters of the text kept in the post row for listings
+    public static final int EXCERPT_LENGTH = 200;
+
+    // Ids are taken from a pooled sequence, 50 at a time, so inserts can be sent as JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = Post.ID_ALLOCATION_SIZE)
     private Long id;
     @FullTextField // Will index the title for full-text search
     private String title;
-    @FullTextField
-    private String text;
+    // Start of the text, list endpoints return it in place of the whole body
+    @Column(length = Post.EXCERPT_LENGTH + 1)
+    private String excerpt;
+
+    // The body row has the id of the post, so the proxy is created from the id without a query.
+    // Writes go through PostBody itself, changes of the text are reindexed by the services
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id", insertable = false, updatable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @IndexedEmbedded(includePaths = "text")
+    @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.SHALLOW)
+    private PostBody body;
 
     @ManyToMany
     @JoinTable(
             name = "post_tag",
             joinColumns = @JoinColumn(name = "post_id"),
-            inverseJoinColumns = @JoinColumn(name = "tag_id")
+            inverseJoinColumns = @JoinColumn(name = "tag_id"),
+            // Serves the posts of a tag in id order for keyset pagination
+            indexes = @Index(name = "idx_post_tag_tag_id_post_id", columnList = "tag_id, post_id")
     )
     private Set<Tag> tags = new HashSet<>();
 
     private String imageUrl;
     private String videoUrl;
 
+    // Incremented on every change of the post or of its tags, responses use it as their ETag
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    public Post(Long id, String title, String text, Set<Tag> tags, String imageUrl, String videoUrl) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = excerptOf(text);
+        this.body = new PostBody(id, text);
+        this.tags = tags;
+        this.imageUrl = imageUrl;
+        this.videoUrl = videoUrl;
+    }
+
+    // Whole text of the body, loads the body if it is still a proxy
+    public String getText() {
+        return body == null ? null : body.getText();
+    }
+
+    public static String excerptOf(String text) {
+        if (text == null || text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int end = Character.isHighSurrogate(text.charAt(EXCERPT_LENGTH - 1)) ? EXCERPT_LENGTH - 1 : EXCERPT_LENGTH;
+        return text.substring(0, end) + "\u2026";
+    }
 }
@@ -0,0 +1,32 @@
+package com.practical.myblog.model;
+
+import com.practical.myblog.util.CompressedTextConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Length;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+
+/**
+ * Full text of a post, kept out of the post row so listings never read it.
+ * It is only loaded by detail reads, exports and indexing, and stored compressed when it is large.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "post_body")
+public class PostBody {
+
+    // Id of the post, the body is written and deleted together with it
+    @Id
+    private Long postId;
+
+    @FullTextField
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = Length.LONG32)
+    private String text;
+}
@@ -0,0 +1,27 @@
+package com.practical.myblog.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Counters of a post, kept out of the post row so view counting never touches the post or its version.
+ * Rows are written with native upserts by PostViewCounter.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "post_stats", indexes = @Index(name = "idx_post_stats_view_count", columnList = "view_count"))
+public class PostStats {
+
+    // Id of the post, there is one row per viewed post
+    @Id
+    private Long postId;
+
+    @Column(nullable = false)
+    private long viewCount;
+}
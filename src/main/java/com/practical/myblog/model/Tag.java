@@ -2,14 +2,16 @@ package com.practical.myblog.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 public class Tag {
 
@@ -23,4 +25,18 @@ public class Tag {
     // This tells Hibernate that the Post entity is the owner of the relationship
     @ManyToMany(mappedBy = "tags")
     private Set<Post> posts = new HashSet<>();
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    public Tag(Long id, String name, Set<Post> posts) {
+        this.id = id;
+        this.name = name;
+        this.posts = posts;
+    }
 }
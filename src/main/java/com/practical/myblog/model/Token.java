@@ -3,21 +3,32 @@ package com.practical.myblog.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_token_user_id", columnList = "user_id"),
+        @Index(name = "idx_token_session_id", columnList = "session_id")
+})
 public class Token {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     public Long id;
 
+    // Raw JWT of rows created before token digests, cleared by TokenDigestMigration
     @Column(unique = true)
     public String token;
 
+    // SHA-256 of the JWT, see TokenDigest
+    @Column(name = "token_hash", unique = true, length = 32)
+    public byte[] tokenHash;
+
     @Enumerated(EnumType.STRING)
     public TokenType tokenType = TokenType.BEARER;
 
@@ -25,6 +36,12 @@ public class Token {
 
     public boolean expired;
 
+    public Instant expiresAt;
+
+    // Login the token was issued for, the access and refresh tokens of one login share it. Null for older rows
+    @Column(name = "session_id", length = 36)
+    public String sessionId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     public User user;
@@ -1,5 +1,6 @@
 package com.practical.myblog.model;
 
 public enum TokenType {
-    BEARER
+    BEARER,
+    REFRESH
 }
\ No newline at end of file
@@ -1,28 +1,123 @@
 package com.practical.myblog.repository;
 
+import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.dto.PostTagNameDTO;
+import com.practical.myblog.dto.TagPostCountDTO;
+import com.practical.myblog.dto.TagResponseDTO;
 import com.practical.myblog.model.Post;
-import com.practical.myblog.model.Tag;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+    // Read endpoints select straight into the response DTO, so only the needed columns are read
+    // and no entities are hydrated or tracked by the persistence context.
+    // Lists return the excerpt without the text, only the single post read joins the body
+    @Query(value = "SELECT new com.practical.myblog.dto.PostResponseDTO(p.id, p.title, p.imageUrl, p.videoUrl, p.version, p.updatedAt, p.excerpt) FROM Post p",
+            countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostResponseDTO> findAllPostResponses(Pageable pageable);
+
+    @Query("SELECT new com.practical.myblog.dto.PostResponseDTO(p.id, p.title, b.text, p.excerpt, p.imageUrl, p.videoUrl, p.version, p.updatedAt) FROM Post p LEFT JOIN p.body b WHERE p.id = :id")
+    Optional<PostResponseDTO> findPostResponseById(@Param("id") Long id);
+
     // JPQL
     // SELECT p.* FROM post p, post_tag pt, tag t WHERE p.id = pt.post_id AND t.id = pt.tag_id AND t.name = :tagName
     // JOIN p.tags t  >> means it's using the junction table
-    @Query("SELECT p FROM Post p JOIN p.tags t WHERE t.name = :tagName")
-    Optional<Page<Post>> findAllPostsByTagName(@Param("tagName") String tagName, Pageable pageable);
+    @Query(value = "SELECT new com.practical.myblog.dto.PostResponseDTO(p.id, p.title, p.imageUrl, p.videoUrl, p.version, p.updatedAt, p.excerpt) FROM Post p JOIN p.tags t WHERE t.name = :tagName",
+            countQuery = "SELECT COUNT(p) FROM Post p JOIN p.tags t WHERE t.name = :tagName")
+    Optional<Page<PostResponseDTO>> findAllPostResponsesByTagName(@Param("tagName") String tagName, Pageable pageable);
+
+    // Keyset pagination, seeks on the primary key instead of skipping rows with OFFSET
+    @Query("SELECT new com.practical.myblog.dto.PostResponseDTO(p.id, p.title, p.imageUrl, p.videoUrl, p.version, p.updatedAt, p.excerpt) FROM Post p WHERE p.id > :id ORDER BY p.id")
+    List<PostResponseDTO> findPostResponsesAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT new com.practical.myblog.dto.PostResponseDTO(p.id, p.title, p.imageUrl, p.videoUrl, p.version, p.updatedAt, p.excerpt) FROM Post p JOIN p.tags t WHERE t.name = :tagName AND p.id > :id ORDER BY p.id")
+    List<PostResponseDTO> findPostResponsesByTagNameAfterId(@Param("tagName") String tagName, @Param("id") Long id, Pageable pageable);
+
+    // A page of ids picked elsewhere (search index, tag posting lists), the caller restores their order
+    @Query("SELECT new com.practical.myblog.dto.PostResponseDTO(p.id, p.title, p.imageUrl, p.videoUrl, p.version, p.updatedAt, p.excerpt) FROM Post p WHERE p.id IN :ids")
+    List<PostResponseDTO> findPostResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.practical.myblog.dto.TagResponseDTO(t.id, t.name) FROM Post p JOIN p.tags t WHERE p.id = :postId")
+    Set<TagResponseDTO> tagResponsesByPost(@Param("postId") Long postId);
+
+    // Tag names of a whole page of posts in one query
+    @Query("SELECT new com.practical.myblog.dto.PostTagNameDTO(p.id, t.name) FROM Post p JOIN p.tags t WHERE p.id IN :postIds")
+    List<PostTagNameDTO> findTagNamesByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // Relations of the given posts per tag, they give the changes of the tag post counts around set-based writes
+    @Query("SELECT new com.practical.myblog.dto.TagPostCountDTO(t.id, t.name, COUNT(p)) FROM Post p JOIN p.tags t " +
+            "WHERE p.id IN :postIds GROUP BY t.id, t.name")
+    List<TagPostCountDTO> countLinksPerTag(@Param("postIds") Collection<Long> postIds);
+
+    @Query("SELECT new com.practical.myblog.dto.TagPostCountDTO(t.id, t.name, COUNT(p)) FROM Post p JOIN p.tags t " +
+            "WHERE p.id IN :postIds AND t.id IN :tagIds GROUP BY t.id, t.name")
+    List<TagPostCountDTO> countLinksPerTag(@Param("postIds") Collection<Long> postIds, @Param("tagIds") Collection<Long> tagIds);
+
+    // Set-based writes to the junction table, one statement for any number of posts and tags.
+    // Pairs that already exist are skipped and unknown post ids are ignored.
+    @Modifying
+    @Query(value = """
+            INSERT INTO post_tag (post_id, tag_id)
+            SELECT p.id, t.id FROM post p CROSS JOIN tag t
+            WHERE p.id IN :postIds AND t.id IN :tagIds
+            AND NOT EXISTS (SELECT 1 FROM post_tag pt WHERE pt.post_id = p.id AND pt.tag_id = t.id)
+            """, nativeQuery = true)
+    int attachTags(@Param("postIds") Collection<Long> postIds, @Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_tag WHERE post_id IN :postIds AND tag_id IN :tagIds", nativeQuery = true)
+    int detachTags(@Param("postIds") Collection<Long> postIds, @Param("tagIds") Collection<Long> tagIds);
+
+    // Relations of deleted posts go first, the post rows can't be removed while they are referenced
+    @Modifying
+    @Query(value = "DELETE FROM post_tag WHERE post_id IN :postIds", nativeQuery = true)
+    int deleteTagLinksOfPosts(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_body WHERE post_id IN :postIds", nativeQuery = true)
+    int deleteBodiesOfPosts(@Param("postIds") Collection<Long> postIds);
+
+    // One statement, unlike deleteById which loads the entity first
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Post p JOIN p.tags t WHERE t.name = :tagName ORDER BY p.id")
+    List<Long> findIdsByTagName(@Param("tagName") String tagName, Pageable pageable);
 
-    @Query("SELECT COUNT(t) > 0 FROM Post p JOIN p.tags t WHERE p.id = :postId AND t.name = :tagName")
-    boolean existsTagForPost(@Param("postId") Long postId, @Param("tagName") String tagName);
+    // Responses embed tag names, so the junction statements above move the version of their posts like an entity update
+    @Modifying
+    @Query(value = "UPDATE post SET version = version + 1, updated_at = :now WHERE id IN :postIds", nativeQuery = true)
+    int touchPosts(@Param("postIds") Collection<Long> postIds, @Param("now") Instant now);
 
-    @Query("SELECT t FROM Post p JOIN p.tags t WHERE p.id = :postId")
-    Set<Tag> tagsByPost(@Param("postId") Long postId);
+    // Forward-only read of all posts for the export, rows are fetched from the driver in chunks.
+    // Ordering by id keeps the rows of a post together, so each post is complete when it is returned.
+    // PostgreSQL streams with a fetch size inside a transaction, MySQL also needs useCursorFetch=true in the URL.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Post p LEFT JOIN FETCH p.body LEFT JOIN FETCH p.tags ORDER BY p.id")
+    Stream<Post> streamAllWithBodyAndTags();
 }
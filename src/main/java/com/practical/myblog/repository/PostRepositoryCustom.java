@@ -0,0 +1,32 @@
+package com.practical.myblog.repository;
+
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostFieldsDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queries whose select list depends on the request, they only read the requested columns
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * @param tagName Only posts with this tag, null for all posts
+     */
+    Page<PostFieldsDTO> findPostFields(Set<PostField> fields, String tagName, Pageable pageable);
+
+    /**
+     * Keyset page in id order
+     * @param tagName Only posts with this tag, null for all posts
+     */
+    List<PostFieldsDTO> findPostFieldsAfterId(Set<PostField> fields, String tagName, long afterId, int limit);
+
+    /**
+     * @return Rows of the posts that exist, in no particular order
+     */
+    List<PostFieldsDTO> findPostFieldsByIds(Set<PostField> fields, Collection<Long> ids);
+}
@@ -0,0 +1,129 @@
+package com.practical.myblog.repository;
+
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostFieldsDTO;
+import com.practical.myblog.model.Post;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<PostFieldsDTO> findPostFields(Set<PostField> fields, String tagName, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Post> post = query.from(Post.class);
+        query.multiselect(selections(post, fields));
+        query.where(filters(cb, post, tagName).toArray(Predicate[]::new));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), post, cb));
+
+        var tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // The count only runs when the page doesn't tell the total already
+        return PageableExecutionUtils.getPage(toRows(tuples, fields), pageable, () -> count(tagName));
+    }
+
+    @Override
+    public List<PostFieldsDTO> findPostFieldsAfterId(Set<PostField> fields, String tagName, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Post> post = query.from(Post.class);
+        query.multiselect(selections(post, fields));
+        List<Predicate> filters = filters(cb, post, tagName);
+        filters.add(cb.gt(post.get("id"), afterId));
+        query.where(filters.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(post.get("id")));
+
+        return toRows(entityManager.createQuery(query).setMaxResults(limit).getResultList(), fields);
+    }
+
+    @Override
+    public List<PostFieldsDTO> findPostFieldsByIds(Set<PostField> fields, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Post> post = query.from(Post.class);
+        query.multiselect(selections(post, fields));
+        query.where(post.get("id").in(ids));
+
+        return toRows(entityManager.createQuery(query).getResultList(), fields);
+    }
+
+    private long count(String tagName) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Post> post = query.from(Post.class);
+        query.select(cb.count(post));
+        query.where(filters(cb, post, tagName).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Id and version are always read, they identify the row and build the ETag of the page
+    private static List<Selection<?>> selections(Root<Post> post, Set<PostField> fields) {
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(post.get("id").alias("id"));
+        selections.add(post.get("version").alias("version"));
+        for (PostField field : fields) {
+            if (field != PostField.ID) {
+                selections.add(path(post, field.getAttribute()).alias(field.getProperty()));
+            }
+        }
+        return selections;
+    }
+
+    private static Path<?> path(Root<Post> post, String attribute) {
+        String[] names = attribute.split("\\.");
+        From<?, ?> from = post;
+        for (int i = 0; i < names.length - 1; i++) {
+            from = from.join(names[i], JoinType.LEFT);
+        }
+        return from.get(names[names.length - 1]);
+    }
+
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<Post> post, String tagName) {
+        List<Predicate> filters = new ArrayList<>();
+        if (tagName != null) {
+            filters.add(cb.equal(post.join("tags").get("name"), tagName));
+        }
+        return filters;
+    }
+
+    private static List<PostFieldsDTO> toRows(List<Tuple> tuples, Set<PostField> fields) {
+        List<PostFieldsDTO> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (PostField field : fields) {
+                values.put(field.getProperty(), tuple.get(field.getProperty()));
+            }
+            rows.add(new PostFieldsDTO(tuple.get("id", Long.class), tuple.get("version", Long.class), values));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,30 @@
+package com.practical.myblog.repository;
+
+import com.practical.myblog.dto.PopularPostDTO;
+import com.practical.myblog.model.PostStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostStatsRepository extends JpaRepository<PostStats, Long> {
+
+    // Reads the top of idx_post_stats_view_count, the join drops stats of deleted posts
+    @Query("SELECT new com.practical.myblog.dto.PopularPostDTO(p.id, p.title, s.viewCount) FROM PostStats s JOIN Post p ON p.id = s.postId " +
+            "ORDER BY s.viewCount DESC, p.id")
+    List<PopularPostDTO> findMostViewed(Pageable pageable);
+
+    @Query("SELECT new com.practical.myblog.dto.PopularPostDTO(p.id, p.title, s.viewCount) FROM PostStats s JOIN Post p ON p.id = s.postId " +
+            "WHERE s.postId IN :postIds")
+    List<PopularPostDTO> findViewCounts(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_stats WHERE post_id IN :postIds", nativeQuery = true)
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+}
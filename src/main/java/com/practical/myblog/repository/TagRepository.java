@@ -1,12 +1,44 @@
 package com.practical.myblog.repository;
 
+import com.practical.myblog.dto.TagPostCountDTO;
+import com.practical.myblog.dto.TagResponseDTO;
 import com.practical.myblog.model.Tag;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
-    Optional<Tag> findByName(String name);
+    // Loads TagDictionary, tag names are resolved in memory from there
+    @Query("SELECT new com.practical.myblog.dto.TagResponseDTO(t.id, t.name) FROM Tag t")
+    List<TagResponseDTO> findAllTagResponses();
+
+    // Full count for TagPostCounts, which keeps it up to date between two runs
+    @Query("SELECT new com.practical.myblog.dto.TagPostCountDTO(t.id, t.name, COUNT(p)) FROM Tag t JOIN t.posts p GROUP BY t.id, t.name")
+    List<TagPostCountDTO> countPostsPerTag();
+
+    @Query("SELECT DISTINCT p.id FROM Post p JOIN p.tags t WHERE t.id IN :tagIds ORDER BY p.id")
+    List<Long> findPostIdsByTagIds(@Param("tagIds") Collection<Long> tagIds, Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_tag WHERE tag_id IN :tagIds", nativeQuery = true)
+    int deletePostLinksOfTags(@Param("tagIds") Collection<Long> tagIds);
+
+    // One statement, unlike deleteById which loads the entity first
+    @Modifying
+    @Query("DELETE FROM Tag t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // A renamed or deleted tag changes the responses of its posts, their versions are moved with it
+    @Modifying
+    @Query(value = "UPDATE post SET version = version + 1, updated_at = :now WHERE id IN (SELECT post_id FROM post_tag WHERE tag_id = :tagId)",
+            nativeQuery = true)
+    int touchPostsOfTag(@Param("tagId") Long tagId, @Param("now") Instant now);
 }
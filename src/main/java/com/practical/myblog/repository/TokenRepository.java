@@ -1,20 +1,78 @@
 package com.practical.myblog.repository;
 
 import com.practical.myblog.model.Token;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository extends JpaRepository<Token, Long> {
 
     @Query("""
-      select t from Token t
-      inner join t.user u where u.id = :id
+      select t.tokenHash from Token t
+      where t.user.id = :id
+      and (t.expired = false or t.revoked = false)
+      """)
+    List<byte[]> findAllValidTokenHashesByUser(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("""
+      update Token t set t.expired = true, t.revoked = true
+      where t.user.id = :id
+      and (t.expired = false or t.revoked = false)
+      """)
+    int revokeAllValidTokensByUser(Long id);
+
+    // Revokes the token only if it is still valid, returns 0 when it was already used
+    @Transactional
+    @Modifying
+    @Query("""
+      update Token t set t.expired = true, t.revoked = true
+      where t.id = :id
+      and t.revoked = false
+      """)
+    int revokeToken(Long id);
+
+    @Query("""
+      select t.tokenHash from Token t
+      where t.sessionId = :sessionId
       and (t.expired = false or t.revoked = false)
       """)
-    List<Token> findAllValidTokenByUser(Long id);
+    List<byte[]> findAllValidTokenHashesBySession(String sessionId);
+
+    // Ends one login: its access tokens and its refresh token, the other sessions of the user stay valid
+    @Transactional
+    @Modifying
+    @Query("""
+      update Token t set t.expired = true, t.revoked = true
+      where t.sessionId = :sessionId
+      and (t.expired = false or t.revoked = false)
+      """)
+    int revokeAllValidTokensBySession(String sessionId);
+
+    // Tokens past their expiration date, oldest first. Revoked tokens are kept until then, so a replayed
+    // rotated refresh token is still recognized. Rows stored before expiresAt existed go once they are revoked.
+    @Query("""
+      select t.id from Token t
+      where t.expiresAt < :now
+      or (t.expiresAt is null and (t.revoked = true or t.expired = true))
+      order by t.id
+      """)
+    List<Long> findDeadTokenIds(Instant now, Pageable pageable);
+
+    // Rows stored before token digests were introduced
+    @Query("""
+      select t from Token t
+      where t.tokenHash is null and t.token is not null
+      order by t.id
+      """)
+    List<Token> findLegacyTokens(Pageable pageable);
 
-    Optional<Token> findByToken(String token);
+    Optional<Token> findByTokenHash(byte[] tokenHash);
 }
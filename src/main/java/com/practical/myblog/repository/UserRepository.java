@@ -1,11 +1,23 @@
 package com.practical.myblog.repository;
 
+import com.practical.myblog.dto.UserResponseDTO;
 import com.practical.myblog.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
+
+    // Password hashes are never read for the user listing
+    @Query(value = "SELECT new com.practical.myblog.dto.UserResponseDTO(u.id, u.username, u.displayName) FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserResponseDTO> findAllUserResponses(Pageable pageable);
+
+    @Query("SELECT new com.practical.myblog.dto.UserResponseDTO(u.id, u.username, u.displayName) FROM User u WHERE u.id = :id")
+    Optional<UserResponseDTO> findUserResponseById(Long id);
 }
@@ -0,0 +1,53 @@
+package com.practical.myblog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+
+/**
+ * UserDetailsService used by JwtAuthenticationFilter.
+ * Keeps a snapshot of the username and authorities only, the password is not cached,
+ * so this service must not be used to check credentials.
+ */
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final Cache<String, UserDetails> users;
+
+    public CachedUserDetailsService(UserDetailsService delegate, MeterRegistry meterRegistry, long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "user.details");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        return users.get(username, this::loadSnapshot);
+    }
+
+    /**
+     * Removes the user from the cache. Call it when the user is deleted or their role changes.
+     * @param username Username of the user
+     */
+    public void evict(String username) {
+        users.invalidate(username);
+    }
+
+    private UserDetails loadSnapshot(String username) {
+        UserDetails user = delegate.loadUserByUsername(username);
+        return User.withUsername(user.getUsername())
+                .password("")
+                .authorities(user.getAuthorities())
+                .build();
+    }
+}
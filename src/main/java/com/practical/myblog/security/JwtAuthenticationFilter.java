@@ -1,11 +1,12 @@
 package com.practical.myblog.security;
 
-import com.practical.myblog.repository.TokenRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,7 +24,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final TokenValidityCache tokenValidityCache;
+
+    // In stateless mode access tokens are not stored, so only their signature, expiry and in-memory revocations are checked
+    @Value("${application.security.jwt.stateless}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(
@@ -40,17 +45,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         jwtToken = authHeader.substring(7);
-        username = jwtService.extractUsername(jwtToken);
+        // Verify the signature once, the claims are reused for the validity check below
+        final Claims claims = jwtService.extractAllClaims(jwtToken);
+        username = claims.getSubject();
         // If user is not yet authenticated
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            var isTokenValid = tokenRepository.findByToken(jwtToken)
-                    .map(t -> !t.isExpired() && !t.isRevoked())
-                    .orElse(false);
+            var tokenDigest = TokenDigest.of(jwtToken);
+            var isTokenValid = stateless
+                    ? !tokenValidityCache.isRevoked(tokenDigest)
+                    : tokenValidityCache.isTokenValid(tokenDigest);
 
+            // Refresh tokens can only be used at /users/refresh
             // Check if the JWT is valid and the stored token is valid
-            if (jwtService.isTokenValid(jwtToken, userDetails) && isTokenValid) {
+            if (jwtService.isAccessToken(claims) && jwtService.isTokenValid(claims, userDetails) && isTokenValid) {
                 var authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -1,6 +1,7 @@
 package com.practical.myblog.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -14,78 +15,150 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Slf4j
 @Service
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
-    private final long jwtExpiration = 86400000;
+    // Claim telling access tokens and refresh tokens apart, tokens without it are access tokens
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
+    private static final String ACCESS_TOKEN = "access";
+    private static final String REFRESH_TOKEN = "refresh";
+    // Shared by the access and refresh tokens of one login, logout revokes only the tokens of its session
+    private static final String SESSION_ID_CLAIM = "sid";
+
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+
+    public JwtService(
+            @Value("${application.security.jwt.secret-key}") String secretKey,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration,
+            @Value("${application.security.jwt.refresh-expiration}") long refreshExpiration,
+            @Value("${application.security.jwt.stateless}") boolean stateless,
+            @Value("${application.security.jwt.stateless-expiration}") long statelessExpiration
+    ) {
+        // Stateless access tokens can't be revoked across instances, so they get their own short lifetime
+        this.jwtExpiration = stateless ? statelessExpiration : jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        // The key is decoded once and the parser is immutable, so both are shared by all requests
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
 
     public String extractUsername(String token) {
-        log.info("Extracting username from token");
+        log.debug("Extracting username from token");
         return extractClaim(token, Claims::getSubject);
     }
 
     public String generateToken(UserDetails userDetails) {
-        log.info("Generating token for user: {}", userDetails.getUsername());
+        log.debug("Generating token for user: {}", userDetails.getUsername());
         return generateToken(new HashMap<>(), userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        log.info("Generating token with extra claims for user: {}", userDetails.getUsername());
-        return buildToken(extraClaims, userDetails);
+        log.debug("Generating token with extra claims for user: {}", userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN);
+        return buildToken(claims, userDetails, jwtExpiration);
+    }
+
+    /**
+     * Generates an access token that belongs to a session
+     * @param userDetails User the token is issued for
+     * @param sessionId Id of the session, the refresh token issued with it gets the same one
+     * @return Access token
+     */
+    public String generateToken(UserDetails userDetails, String sessionId) {
+        return generateToken(Map.of(SESSION_ID_CLAIM, sessionId), userDetails);
+    }
+
+    /**
+     * Generates a long-lived token that can only be exchanged for new tokens at /users/refresh
+     * @param userDetails User the token is issued for
+     * @param sessionId Id of the session, shared with the access token issued with it
+     * @return Refresh token
+     */
+    public String generateRefreshToken(UserDetails userDetails, String sessionId) {
+        log.debug("Generating refresh token for user: {}", userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN);
+        claims.put(SESSION_ID_CLAIM, sessionId);
+        return buildToken(claims, userDetails, refreshExpiration);
     }
 
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        log.info("Building token for user: {}", userDetails.getUsername());
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+        log.debug("Building token for user: {}", userDetails.getUsername());
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
+                // Unique id, so two tokens issued in the same second never share a digest
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        log.info("Validating token for user: {}", userDetails.getUsername());
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * Validates already parsed claims, so the signature of the token is not checked again
+     * @param claims Claims returned by {@link #extractAllClaims(String)}
+     * @param userDetails User the token should belong to
+     * @return True if the token belongs to the user and is not expired
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        log.debug("Validating token for user: {}", userDetails.getUsername());
+        return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        return tokenType == null || ACCESS_TOKEN.equals(tokenType);
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
     }
 
-    private boolean isTokenExpired(String token) {
-        log.info("Checking if token is expired");
-        return extractExpiration(token).before(new Date());
+    /**
+     * @param claims Claims of an access or refresh token
+     * @return Id of the session the token belongs to, null for tokens issued before sessions
+     */
+    public String extractSessionId(Claims claims) {
+        return claims.get(SESSION_ID_CLAIM, String.class);
     }
 
-    private Date extractExpiration(String token) {
-        log.info("Extracting expiration date from token");
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        log.debug("Checking if token is expired");
+        return claims.getExpiration().before(new Date());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        log.info("Extracting claims from token");
+        log.debug("Extracting claims from token");
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        log.info("Extracting all claims from token");
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+    /**
+     * Verifies the signature of the token and returns its claims.
+     * Parse a token once per request and pass the claims around instead of the raw token.
+     * @param token Compact JWT
+     * @return Claims of the token
+     */
+    public Claims extractAllClaims(String token) {
+        log.debug("Extracting all claims from token");
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSignInKey() {
-        log.info("Getting signing key");
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
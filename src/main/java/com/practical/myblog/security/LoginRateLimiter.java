@@ -0,0 +1,111 @@
+package com.practical.myblog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practical.myblog.exception.LoginThrottledException;
+import com.practical.myblog.util.ErrorMessages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles login attempts per username and per client address, before any password is hashed.
+ * Every key has a token bucket implemented as GCRA: the bucket is a single AtomicLong holding the
+ * theoretical arrival time of the next request, updated with a CAS loop, so no locks are taken.
+ * Buckets are kept in a bounded cache and dropped after a full idle period, when they would be full again anyway.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private final LongSupplier clock;
+    private final Bucket usernameBuckets;
+    private final Bucket addressBuckets;
+    private final Counter throttledByUsername;
+    private final Counter throttledByAddress;
+
+    @Autowired
+    public LoginRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${application.security.login-throttle.username-capacity}") int usernameCapacity,
+            @Value("${application.security.login-throttle.address-capacity}") int addressCapacity,
+            @Value("${application.security.login-throttle.period}") Duration period,
+            @Value("${application.security.login-throttle.maximum-keys}") long maximumKeys
+    ) {
+        this(meterRegistry, usernameCapacity, addressCapacity, period, maximumKeys, System::nanoTime);
+    }
+
+    public LoginRateLimiter(
+            MeterRegistry meterRegistry,
+            int usernameCapacity,
+            int addressCapacity,
+            Duration period,
+            long maximumKeys,
+            LongSupplier clock
+    ) {
+        this.clock = clock;
+        this.usernameBuckets = new Bucket(usernameCapacity, period, maximumKeys);
+        this.addressBuckets = new Bucket(addressCapacity, period, maximumKeys);
+        this.throttledByUsername = meterRegistry.counter("login.throttled", "key", "username");
+        this.throttledByAddress = meterRegistry.counter("login.throttled", "key", "address");
+    }
+
+    /**
+     * Takes one login attempt from the buckets of the username and the client address
+     * @param username Username sent with the login request
+     * @param clientAddress Address of the client
+     * @throws LoginThrottledException if either bucket is empty
+     */
+    public void checkLogin(String username, String clientAddress) {
+        if (!usernameBuckets.tryAcquire(Objects.requireNonNullElse(username, ""))) {
+            throttledByUsername.increment();
+            log.warn("Login throttled for user: {}", username);
+            throw new LoginThrottledException(ErrorMessages.TOO_MANY_LOGIN_ATTEMPTS);
+        }
+        if (!addressBuckets.tryAcquire(Objects.requireNonNullElse(clientAddress, ""))) {
+            throttledByAddress.increment();
+            log.warn("Login throttled for address: {}", clientAddress);
+            throw new LoginThrottledException(ErrorMessages.TOO_MANY_LOGIN_ATTEMPTS);
+        }
+    }
+
+    private class Bucket {
+
+        // Time between two permits and how far ahead of now the next permit may be handed out
+        private final long emissionInterval;
+        private final long burstTolerance;
+        private final Cache<String, AtomicLong> arrivals;
+
+        Bucket(int capacity, Duration period, long maximumKeys) {
+            this.emissionInterval = period.toNanos() / capacity;
+            this.burstTolerance = emissionInterval * (capacity - 1);
+            this.arrivals = Caffeine.newBuilder()
+                    .maximumSize(maximumKeys)
+                    .expireAfterAccess(period)
+                    .build();
+        }
+
+        boolean tryAcquire(String key) {
+            AtomicLong theoreticalArrival = arrivals.get(key, k -> new AtomicLong(clock.getAsLong()));
+            long now = clock.getAsLong();
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long start = Math.max(arrival, now);
+                if (start - now > burstTolerance) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, start + emissionInterval)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
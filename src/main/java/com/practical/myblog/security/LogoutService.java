@@ -1,21 +1,34 @@
 package com.practical.myblog.security;
 
 import com.practical.myblog.repository.TokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Service;
 
+/**
+ * Ends the session of the access token sent with the logout request: its stored access tokens and
+ * its refresh token are revoked, other sessions of the same user stay valid.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LogoutService implements LogoutHandler {
 
     private final TokenRepository tokenRepository;
+    private final TokenValidityCache tokenValidityCache;
+    private final JwtService jwtService;
+
+    @Value("${application.security.jwt.stateless}")
+    private boolean stateless;
 
     @Override
     public void logout(
@@ -31,16 +44,54 @@ public class LogoutService implements LogoutHandler {
             return;
         }
         jwtToken = authHeader.substring(7);
-        var storedToken = tokenRepository.findByToken(jwtToken).orElse(null);
+        var tokenDigest = TokenDigest.of(jwtToken);
+        Claims claims = parseClaims(jwtToken);
+        if (claims == null) {
+            return;
+        }
+        String sessionId = jwtService.extractSessionId(claims);
+        if (sessionId != null) {
+            revokeSession(sessionId);
+        } else if (!stateless) {
+            // Tokens issued before sessions only end their own access token
+            revokeStoredToken(tokenDigest);
+        }
+        // Only once the rows are revoked, a request loading them in between would cache them as valid again.
+        // Access tokens are not stored in stateless mode, they are rejected by this instance until they expire
+        tokenValidityCache.revoke(tokenDigest);
+        SecurityContextHolder.clearContext();
+    }
+
+    private void revokeSession(String sessionId) {
+        // Only the digests are read, they are needed to invalidate the token validity cache
+        var sessionTokens = tokenRepository.findAllValidTokenHashesBySession(sessionId);
+        int revokedTokens = tokenRepository.revokeAllValidTokensBySession(sessionId);
+        sessionTokens.forEach(tokenHash -> tokenValidityCache.revoke(TokenDigest.ofHash(tokenHash)));
+        log.info("User logged out successfully and {} tokens of session: {} revoked", revokedTokens, sessionId);
+    }
+
+    private void revokeStoredToken(TokenDigest tokenDigest) {
+        var storedToken = tokenRepository.findByTokenHash(tokenDigest.getValue()).orElse(null);
         if (storedToken != null) {
-            log.info("Token found in repository. Revoking token: {}", jwtToken);
+            log.debug("Token found in repository, revoking token id: {}", storedToken.getId());
             storedToken.setExpired(true);
             storedToken.setRevoked(true);
             tokenRepository.save(storedToken);
-            SecurityContextHolder.clearContext();
-            log.info("User logged out successfully and token revoked: {}", jwtToken);
+            log.info("User logged out successfully and token id: {} revoked", storedToken.getId());
         } else {
-            log.warn("No token found in repository for token: {}", jwtToken);
+            log.warn("No stored token found for the logout request");
+        }
+    }
+
+    // An expired access token still names its session, whose refresh token may be valid for days
+    private Claims parseClaims(String jwtToken) {
+        try {
+            return jwtService.extractAllClaims(jwtToken);
+        } catch (ExpiredJwtException e) {
+            return e.getClaims();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Logout with an invalid token: {}", e.getMessage());
+            return null;
         }
     }
 }
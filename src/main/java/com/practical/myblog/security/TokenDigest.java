@@ -0,0 +1,37 @@
+package com.practical.myblog.security;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed-size SHA-256 digest of a JWT. Tokens are stored and looked up by their digest, never by the raw value.
+ */
+@Getter
+@EqualsAndHashCode
+public final class TokenDigest {
+
+    public static final int LENGTH = 32;
+
+    private final byte[] value;
+
+    private TokenDigest(byte[] value) {
+        this.value = value;
+    }
+
+    public static TokenDigest of(String token) {
+        try {
+            return new TokenDigest(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static TokenDigest ofHash(byte[] hash) {
+        return new TokenDigest(hash);
+    }
+}
@@ -0,0 +1,41 @@
+package com.practical.myblog.security;
+
+import com.practical.myblog.repository.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves tokens stored as raw JWTs to the token_hash column and clears the raw value.
+ * Runs in batches on startup, once all rows are migrated it only runs one empty query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenDigestMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final TokenRepository tokenRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyTokens() {
+        long migrated = 0;
+        var legacyTokens = tokenRepository.findLegacyTokens(PageRequest.of(0, BATCH_SIZE));
+        while (!legacyTokens.isEmpty()) {
+            legacyTokens.forEach(token -> {
+                token.setTokenHash(TokenDigest.of(token.getToken()).getValue());
+                token.setToken(null);
+            });
+            tokenRepository.saveAll(legacyTokens);
+            migrated += legacyTokens.size();
+            legacyTokens = tokenRepository.findLegacyTokens(PageRequest.of(0, BATCH_SIZE));
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} stored tokens to token digests", migrated);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.practical.myblog.security;
+
+import com.practical.myblog.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes expired tokens, so the token table doesn't grow with every login.
+ * Revoked tokens stay until they expire, refresh token reuse detection needs their rows.
+ * Rows are deleted in batches, each batch in its own short transaction.
+ */
+@Slf4j
+@Service
+public class TokenPurgeService {
+
+    private final TokenRepository tokenRepository;
+    private final int batchSize;
+    private final Counter purgedTokens;
+    private final Timer purgeTimer;
+
+    public TokenPurgeService(
+            TokenRepository tokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.security.token-purge.batch-size}") int batchSize
+    ) {
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+        this.purgedTokens = meterRegistry.counter("token.purge.deleted");
+        this.purgeTimer = meterRegistry.timer("token.purge.duration");
+    }
+
+    /**
+     * Deletes all tokens past their expiration date
+     * @return Number of deleted tokens
+     */
+    @Scheduled(cron = "${application.security.token-purge.cron}")
+    public long purgeDeadTokens() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        long purged = 0;
+        List<Long> deadTokenIds;
+        do {
+            deadTokenIds = tokenRepository.findDeadTokenIds(now, PageRequest.of(0, batchSize));
+            if (!deadTokenIds.isEmpty()) {
+                tokenRepository.deleteAllByIdInBatch(deadTokenIds);
+                purged += deadTokenIds.size();
+            }
+        } while (deadTokenIds.size() == batchSize);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        purgedTokens.increment(purged);
+        purgeTimer.record(elapsed);
+        log.info("Purged {} dead tokens in {} ms", purged, elapsed.toMillis());
+        return purged;
+    }
+}
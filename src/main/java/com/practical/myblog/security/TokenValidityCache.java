@@ -0,0 +1,92 @@
+package com.practical.myblog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practical.myblog.repository.TokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Local cache of the stored token state, so authenticated requests don't query the token table.
+ * Valid tokens are kept for a short TTL, revoked tokens are kept in a separate set until the JWT itself expires.
+ * Hit and miss counts are published as "cache.gets" metrics for "token.valid" and "token.revoked".
+ */
+@Slf4j
+@Component
+public class TokenValidityCache {
+
+    private final TokenRepository tokenRepository;
+    private final Cache<TokenDigest, Boolean> validTokens;
+    private final Cache<TokenDigest, Boolean> revokedTokens;
+
+    public TokenValidityCache(
+            TokenRepository tokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.security.token-cache.maximum-size}") long maximumSize,
+            @Value("${application.security.token-cache.ttl}") Duration ttl,
+            @Value("${application.security.jwt.expiration}") long jwtExpiration
+    ) {
+        this.tokenRepository = tokenRepository;
+        this.validTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // A revoked token can't become valid again, it only has to be remembered until the JWT expires
+        this.revokedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, validTokens, "token.valid");
+        CaffeineCacheMetrics.monitor(meterRegistry, revokedTokens, "token.revoked");
+    }
+
+    /**
+     * Checks whether the stored token is neither expired nor revoked
+     * @param token Digest of the JWT
+     * @return True if the token exists in the token table and is still valid
+     */
+    public boolean isTokenValid(TokenDigest token) {
+        if (revokedTokens.getIfPresent(token) != null) {
+            return false;
+        }
+        // The loader returns null for invalid tokens, so only valid ones are cached here
+        if (validTokens.get(token, this::loadIfValid) != null) {
+            return true;
+        }
+        revokedTokens.put(token, Boolean.TRUE);
+        return false;
+    }
+
+    /**
+     * Checks the revoked set only, without touching the token table. Used for stateless access tokens.
+     * @param token Digest of the JWT
+     * @return True if the token was revoked on this instance
+     */
+    public boolean isRevoked(TokenDigest token) {
+        return revokedTokens.getIfPresent(token) != null;
+    }
+
+    /**
+     * Marks the token as revoked. Call it after the token row has been updated.
+     * @param token Digest of the JWT
+     */
+    public void revoke(TokenDigest token) {
+        revokedTokens.put(token, Boolean.TRUE);
+        validTokens.invalidate(token);
+    }
+
+    private Boolean loadIfValid(TokenDigest token) {
+        log.debug("Token validity cache miss, loading token state from repository");
+        return tokenRepository.findByTokenHash(token.getValue())
+                .filter(t -> !t.isExpired() && !t.isRevoked())
+                .map(t -> Boolean.TRUE)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,24 @@
+package com.practical.myblog.service;
+
+import com.practical.myblog.dto.BulkDeleteResponseDTO;
+import com.practical.myblog.dto.BulkPostDeleteRequestDTO;
+import com.practical.myblog.dto.BulkTagDeleteRequestDTO;
+
+public interface BulkDeleteService {
+
+    /**
+     * Deletes posts with set-based statements, in chunks that each run in their own transaction.
+     * A failure stops the deletion, chunks committed before it stay deleted.
+     * @param request IDs of the posts or a tag name whose posts are deleted
+     * @return Number of deleted posts, unknown IDs are skipped
+     */
+    BulkDeleteResponseDTO deletePosts(BulkPostDeleteRequestDTO request);
+
+    /**
+     * Deletes tags. Their post relations are removed in chunks of posts first,
+     * so a tag attached to many posts doesn't hold all of its rows in one transaction.
+     * @param request IDs of the tags
+     * @return Number of deleted tags, unknown IDs are skipped
+     */
+    BulkDeleteResponseDTO deleteTags(BulkTagDeleteRequestDTO request);
+}
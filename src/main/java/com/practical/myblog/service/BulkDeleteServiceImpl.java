@@ -0,0 +1,161 @@
+package com.practical.myblog.service;
+
+import com.practical.myblog.dto.BulkDeleteResponseDTO;
+import com.practical.myblog.dto.BulkPostDeleteRequestDTO;
+import com.practical.myblog.dto.BulkTagDeleteRequestDTO;
+import com.practical.myblog.exception.PostValidationException;
+import com.practical.myblog.exception.TagValidationException;
+import com.practical.myblog.model.Post;
+import com.practical.myblog.repository.PostRepository;
+import com.practical.myblog.repository.PostStatsRepository;
+import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.util.ErrorMessages;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class BulkDeleteServiceImpl implements BulkDeleteService {
+
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final PostStatsRepository postStatsRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PostResponseCache postResponseCache;
+    private final TagDictionary tagDictionary;
+    private final TagPostCounts tagPostCounts;
+    private final TagPostingLists tagPostingLists;
+    private final PostViewCounter postViewCounter;
+    private final int chunkSize;
+
+    public BulkDeleteServiceImpl(
+            PostRepository postRepository,
+            TagRepository tagRepository,
+            PostStatsRepository postStatsRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            PostResponseCache postResponseCache,
+            TagDictionary tagDictionary,
+            TagPostCounts tagPostCounts,
+            TagPostingLists tagPostingLists,
+            PostViewCounter postViewCounter,
+            @Value("${application.bulk-delete.chunk-size}") int chunkSize
+    ) {
+        this.postRepository = postRepository;
+        this.tagRepository = tagRepository;
+        this.postStatsRepository = postStatsRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postResponseCache = postResponseCache;
+        this.tagDictionary = tagDictionary;
+        this.tagPostCounts = tagPostCounts;
+        this.tagPostingLists = tagPostingLists;
+        this.postViewCounter = postViewCounter;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BulkDeleteResponseDTO deletePosts(BulkPostDeleteRequestDTO request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byTag = request.getTagName() != null && !request.getTagName().isBlank();
+        if (byIds == byTag) {
+            log.error("Bulk delete needs either ids or a tag name");
+            throw new PostValidationException(ErrorMessages.BULK_DELETE_NEEDS_ONE_FILTER);
+        }
+
+        long started = System.nanoTime();
+        long deleted = 0;
+        if (byIds) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+            log.info("Deleting {} posts by id", ids.size());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                deleted += deletePostChunk(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            }
+        } else {
+            String tagName = request.getTagName();
+            if (!tagDictionary.contains(tagName)) {
+                log.error("Tag not found for bulk delete: {}", tagName);
+                throw new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_NAME + tagName);
+            }
+            log.info("Deleting posts of tag: {}", tagName);
+            // Deleted posts drop out of the query, so the first page is always the next chunk
+            List<Long> ids;
+            while (!(ids = postRepository.findIdsByTagName(tagName, PageRequest.of(0, chunkSize))).isEmpty()) {
+                deleted += deletePostChunk(ids);
+            }
+        }
+
+        log.info("Deleted {} posts in {} ms", deleted, (System.nanoTime() - started) / 1_000_000);
+        return new BulkDeleteResponseDTO(deleted);
+    }
+
+    @Override
+    public BulkDeleteResponseDTO deleteTags(BulkTagDeleteRequestDTO request) {
+        Set<Long> tagIds = new LinkedHashSet<>(request.getIds());
+        long started = System.nanoTime();
+        log.info("Deleting {} tags", tagIds.size());
+
+        List<Long> postIds;
+        while (!(postIds = tagRepository.findPostIdsByTagIds(tagIds, PageRequest.of(0, chunkSize))).isEmpty()) {
+            List<Long> chunk = postIds;
+            transactionTemplate.executeWithoutResult(status -> {
+                // The posts embed tag names, so their versions move as on a tag rename
+                postRepository.touchPosts(chunk, Instant.now());
+                postRepository.detachTags(chunk, tagIds);
+                postResponseCache.invalidateAll(chunk);
+            });
+        }
+
+        Integer deleted = transactionTemplate.execute(status -> {
+            // Catches relations added while the chunks ran, usually none
+            tagRepository.deletePostLinksOfTags(tagIds);
+            tagDictionary.removeAll(tagIds);
+            tagPostCounts.removeAll(tagIds);
+            tagPostingLists.removeTags(tagIds);
+            return tagRepository.deleteByIds(tagIds);
+        });
+
+        log.info("Deleted {} tags in {} ms", deleted, (System.nanoTime() - started) / 1_000_000);
+        return new BulkDeleteResponseDTO(deleted == null ? 0 : deleted);
+    }
+
+    /**
+     * Deletes the relations and rows of a chunk of posts in one transaction.
+     * Bulk statements bypass Hibernate Search, so the documents are purged explicitly
+     * and go to the index together when the transaction commits.
+     */
+    private int deletePostChunk(List<Long> ids) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            Map<Long, Long> removedLinks = new HashMap<>();
+            postRepository.countLinksPerTag(ids).forEach(count -> removedLinks.put(count.getId(), -count.getPostCount()));
+            postRepository.deleteTagLinksOfPosts(ids);
+            postStatsRepository.deleteByPostIds(ids);
+            postViewCounter.forget(ids);
+            postRepository.deleteBodiesOfPosts(ids);
+            int rows = postRepository.deleteByIds(ids);
+            SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+            ids.forEach(id -> indexingPlan.purge(Post.class, id, null));
+            postResponseCache.invalidateAll(ids);
+            tagPostCounts.adjust(removedLinks);
+            tagPostingLists.remove(removedLinks.keySet(), ids);
+            return rows;
+        });
+        return deleted == null ? 0 : deleted;
+    }
+}
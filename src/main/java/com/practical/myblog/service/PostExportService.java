@@ -0,0 +1,16 @@
+package com.practical.myblog.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface PostExportService {
+
+    /**
+     * Writes every post with its tag names as NDJSON, one PostResponseDTO per line.
+     * Posts are streamed from the database and written as they are read, so memory use doesn't depend on the number of posts.
+     * @param outputStream Stream the posts are written to, it is flushed but not closed
+     * @return Number of exported posts
+     * @throws IOException if the output can't be written
+     */
+    long exportPosts(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,70 @@
+package com.practical.myblog.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practical.myblog.mapper.PostMapper;
+import com.practical.myblog.model.Post;
+import com.practical.myblog.model.Tag;
+import com.practical.myblog.repository.PostRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostExportServiceImpl implements PostExportService {
+
+    // Posts written between two flushes of the response
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final PostRepository postRepository;
+    private final PostMapper postMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPosts(OutputStream outputStream) throws IOException {
+        long started = System.nanoTime();
+        long exported = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<Post> posts = postRepository.streamAllWithBodyAndTags()) {
+            Iterator<Post> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                Post post = iterator.next();
+                // Exports are read back by the import, so they carry the whole text
+                var postResponseDTO = postMapper.toResponseWithBody(post);
+                postResponseDTO.setTags(post.getTags().stream()
+                        .map(Tag::getName)
+                        .collect(Collectors.toCollection(TreeSet::new)));
+                // The post is written, it doesn't have to stay in the persistence context
+                entityManager.detach(post);
+                if (post.getBody() != null) {
+                    entityManager.detach(post.getBody());
+                }
+
+                generator.writeObject(postResponseDTO);
+                generator.writeRaw('\n');
+                if (++exported % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+
+        log.info("Exported {} posts in {} ms", exported, (System.nanoTime() - started) / 1_000_000);
+        return exported;
+    }
+}
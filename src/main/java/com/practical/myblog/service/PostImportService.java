@@ -0,0 +1,19 @@
+package com.practical.myblog.service;
+
+import com.practical.myblog.dto.PostImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PostImportService {
+
+    /**
+     * Imports posts from NDJSON, one PostRequestDTO per line.
+     * The input is read line by line and inserted in batches, so memory use doesn't depend on the input size.
+     * Invalid records are reported and skipped, they don't stop the import.
+     * @param input NDJSON input
+     * @return Number of imported and failed records, with the errors of the failed ones
+     * @throws IOException if the input can't be read
+     */
+    PostImportResultDTO importPosts(InputStream input) throws IOException;
+}
@@ -0,0 +1,172 @@
+package com.practical.myblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practical.myblog.dto.PostImportErrorDTO;
+import com.practical.myblog.dto.PostImportResultDTO;
+import com.practical.myblog.dto.PostRequestDTO;
+import com.practical.myblog.mapper.PostMapper;
+import com.practical.myblog.model.Post;
+import com.practical.myblog.util.ErrorMessages;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class PostImportServiceImpl implements PostImportService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PostMapper postMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public PostImportServiceImpl(
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            Validator validator,
+            PostMapper postMapper,
+            @Value("${application.posts.import.batch-size}") int batchSize,
+            @Value("${application.posts.import.max-reported-errors}") int maxReportedErrors
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.postMapper = postMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public PostImportResultDTO importPosts(InputStream input) throws IOException {
+        var result = new PostImportResultDTO(0, 0, new ArrayList<>(), false);
+        List<PostRequestDTO> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        long started = System.nanoTime();
+
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String error;
+                PostRequestDTO postRequestDTO = null;
+                try {
+                    postRequestDTO = objectMapper.readValue(line, PostRequestDTO.class);
+                    // A JSON null is read as null instead of failing like other non-object values
+                    error = postRequestDTO == null ? ErrorMessages.IMPORT_RECORD_NOT_OBJECT : validate(postRequestDTO);
+                } catch (JsonProcessingException e) {
+                    error = ErrorMessages.INVALID_IMPORT_RECORD + e.getOriginalMessage();
+                }
+
+                if (error != null) {
+                    addError(result, lineNumber, error);
+                    continue;
+                }
+                batch.add(postRequestDTO);
+                batchLines.add(lineNumber);
+                if (batch.size() == batchSize) {
+                    insertBatch(batch, batchLines, result);
+                }
+            }
+        }
+        insertBatch(batch, batchLines, result);
+
+        log.info("Imported {} posts, {} records failed, in {} ms",
+                result.getImported(), result.getFailed(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Inserts a batch in its own transaction. The inserts are sent as one JDBC batch on flush
+     * and the persistence context is cleared, so it never holds more than one batch.
+     * If the batch fails, its records are inserted again one per transaction,
+     * so only the records that fail on their own are reported and the import goes on.
+     */
+    private void insertBatch(List<PostRequestDTO> batch, List<Long> batchLines, PostImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+            result.setImported(result.getImported() + batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Import batch starting at line {} failed, inserting its records one by one", batchLines.get(0), e);
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    insert(List.of(batch.get(i)));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException recordFailure) {
+                    log.error("Import record at line {} failed", batchLines.get(i), recordFailure);
+                    addError(result, batchLines.get(i), ErrorMessages.IMPORT_RECORD_FAILED);
+                }
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    // Entities are mapped inside the transaction, a rolled back attempt leaves nothing behind for a retry
+    private void insert(List<PostRequestDTO> records) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (PostRequestDTO postRequestDTO : records) {
+                Post post = postMapper.toEntity(postRequestDTO);
+                entityManager.persist(post);
+                // The body shares the id the post got from the sequence
+                post.getBody().setPostId(post.getId());
+                entityManager.persist(post.getBody());
+            }
+            entityManager.flush();
+            // Index documents are built now, the entities are detached right after
+            Search.session(entityManager).indexingPlan().process();
+            entityManager.clear();
+        });
+    }
+
+    // Same checks as POST /posts: the PostRequestDTO constraints and a non-blank title
+    private String validate(PostRequestDTO postRequestDTO) {
+        var violations = validator.validate(postRequestDTO);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (postRequestDTO.getTitle().trim().isEmpty()) {
+            return ErrorMessages.POST_TITLE_CANNOT_BE_EMPTY;
+        }
+        return null;
+    }
+
+    private void addError(PostImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new PostImportErrorDTO(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.practical.myblog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.util.Transactions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of single posts, with their tag names, used by GET /posts/{id}.
+ * Entries are weighed by their approximate size in memory and expire after the TTL.
+ * Concurrent misses for the same post wait for a single load, so a post is read at most once per TTL.
+ * Hits, misses and evictions are published as "cache.*" metrics for "post.response".
+ */
+@Component
+public class PostResponseCache {
+
+    private final Cache<Long, PostResponseDTO> posts;
+
+    public PostResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${application.posts.cache.maximum-size}") DataSize maximumSize,
+            @Value("${application.posts.cache.ttl}") Duration ttl
+    ) {
+        this.posts = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Long id, PostResponseDTO post) -> weigh(post))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, posts, "post.response");
+    }
+
+    /**
+     * Returns a copy of the cached post, loading it on a miss
+     * @param id ID of the post
+     * @param loader Loads the post with its tag names, exceptions are passed to the caller and nothing is cached
+     * @return Post, with tag names only if includeTags is set
+     */
+    public PostResponseDTO get(Long id, boolean includeTags, Function<Long, PostResponseDTO> loader) {
+        var post = posts.get(id, loader);
+        // Cached entries are shared, callers get their own copy
+        return new PostResponseDTO(post.getId(), post.getTitle(), post.getText(), post.getExcerpt(), post.getImageUrl(), post.getVideoUrl(),
+                includeTags ? post.getTags() : null, post.getVersion(), post.getUpdatedAt());
+    }
+
+    /**
+     * Removes the post now and again after the current transaction commits,
+     * so a read running before the commit can't put the old state back for a whole TTL
+     * @param id ID of the post
+     */
+    public void invalidate(Long id) {
+        invalidateAll(Set.of(id));
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        posts.invalidateAll(ids);
+        Transactions.afterCommit(() -> posts.invalidateAll(ids));
+    }
+
+    /**
+     * Clears the cache, for changes that can touch any post (e.g. a tag rename)
+     */
+    public void invalidateAll() {
+        posts.invalidateAll();
+        Transactions.afterCommit(posts::invalidateAll);
+    }
+
+    // Approximate size in bytes: object headers plus two bytes per character
+    private static int weigh(PostResponseDTO post) {
+        long chars = length(post.getTitle()) + length(post.getText()) + length(post.getExcerpt()) + length(post.getImageUrl()) + length(post.getVideoUrl());
+        if (post.getTags() != null) {
+            chars += post.getTags().stream().mapToLong(PostResponseCache::length).sum();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, 128 + 2 * chars);
+    }
+
+    private static long length(String value) {
+        return Objects.requireNonNullElse(value, "").length();
+    }
+}
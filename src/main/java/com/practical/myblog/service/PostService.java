@@ -1,5 +1,11 @@
 package com.practical.myblog.service;
 
+import com.practical.myblog.dto.BulkTagOperationRequestDTO;
+import com.practical.myblog.dto.BulkTagOperationResponseDTO;
+import com.practical.myblog.dto.CursorPageResponseDTO;
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostFieldsDTO;
+import com.practical.myblog.dto.PostPatchRequestDTO;
 import com.practical.myblog.dto.PostRequestDTO;
 import com.practical.myblog.dto.PostResponseDTO;
 import com.practical.myblog.dto.TagResponseDTO;
@@ -15,9 +21,39 @@ public interface PostService {
      * Gets all posts
      * @param pageNo Page number
      * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
      * @return Pages of the posts
      */
-    Page<PostResponseDTO> getAllPosts(int pageNo, int pageSize);
+    Page<PostResponseDTO> getAllPosts(int pageNo, int pageSize, boolean includeTags);
+
+    /**
+     * Gets posts in id order using keyset pagination, deep pages cost the same as the first one
+     * @param cursor Cursor of the previous page, null for the first page
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Posts after the cursor and the cursor of the next page
+     */
+    CursorPageResponseDTO<PostResponseDTO> getPostsAfter(String cursor, int pageSize, boolean includeTags);
+
+    /**
+     * Gets only the requested fields of all posts, the other columns are not read
+     * @param fields Requested fields, with the ID
+     * @param pageNo Page number
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Page of the posts with the requested fields
+     */
+    Page<PostFieldsDTO> getAllPostFields(Set<PostField> fields, int pageNo, int pageSize, boolean includeTags);
+
+    /**
+     * Gets only the requested fields of posts in id order using keyset pagination
+     * @param fields Requested fields, with the ID
+     * @param cursor Cursor of the previous page, null for the first page
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Posts after the cursor with the requested fields and the cursor of the next page
+     */
+    CursorPageResponseDTO<PostFieldsDTO> getPostFieldsAfter(Set<PostField> fields, String cursor, int pageSize, boolean includeTags);
 
     /**
      * Adds a post
@@ -29,9 +65,10 @@ public interface PostService {
     /**
      * Gets post
      * @param id ID of a post
+     * @param includeTags Whether tag names are embedded in the post
      * @return Post matching the ID
      */
-    PostResponseDTO getPost(Long id);
+    PostResponseDTO getPost(Long id, boolean includeTags);
 
     /**
      * Gets tag relations of post
@@ -55,21 +92,83 @@ public interface PostService {
      */
     void removeTagsFromPost(Long postId, List<String> tagNames);
 
+    /**
+     * Attaches or detaches the same tags for many posts at once.
+     * Pairs already in the requested state and unknown post IDs are skipped.
+     * @param request Operation, post IDs and tag names
+     * @return Number of changed post-tag relations
+     */
+    BulkTagOperationResponseDTO applyTagOperation(BulkTagOperationRequestDTO request);
+
     /**
      * Gets all posts for a tag
      * @param tagName A name of a tag
      * @param pageNo Page number
      * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
      * @return Page of all posts matching this tag name
      */
-    Page<PostResponseDTO> getAllPostsForTag(String tagName, int pageNo, int pageSize);
+    Page<PostResponseDTO> getAllPostsForTag(String tagName, int pageNo, int pageSize, boolean includeTags);
+
+    /**
+     * Gets posts by a boolean query over several tags, in id order
+     * @param all Names of tags a post must all have
+     * @param any Names of tags a post must have at least one of
+     * @param none Names of tags a post must not have
+     * @param pageNo Page number
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Page of the posts matching the query
+     */
+    Page<PostResponseDTO> getAllPostsForTags(List<String> all, List<String> any, List<String> none, int pageNo, int pageSize, boolean includeTags);
 
     /**
-     * Updates post
+     * Gets posts for a tag in id order using keyset pagination
+     * @param tagName A name of a tag
+     * @param cursor Cursor of the previous page, null for the first page
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Posts matching this tag name after the cursor and the cursor of the next page
+     */
+    CursorPageResponseDTO<PostResponseDTO> getPostsForTagAfter(String tagName, String cursor, int pageSize, boolean includeTags);
+
+    /**
+     * Gets only the requested fields of all posts for a tag
+     * @param fields Requested fields, with the ID
+     * @param tagName A name of a tag
+     * @param pageNo Page number
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Page of the posts matching this tag name with the requested fields
+     */
+    Page<PostFieldsDTO> getAllPostFieldsForTag(Set<PostField> fields, String tagName, int pageNo, int pageSize, boolean includeTags);
+
+    /**
+     * Gets only the requested fields of posts for a tag in id order using keyset pagination
+     * @param fields Requested fields, with the ID
+     * @param tagName A name of a tag
+     * @param cursor Cursor of the previous page, null for the first page
+     * @param pageSize Page size
+     * @param includeTags Whether tag names are embedded in the posts
+     * @return Posts matching this tag name after the cursor with the requested fields and the cursor of the next page
+     */
+    CursorPageResponseDTO<PostFieldsDTO> getPostFieldsForTagAfter(Set<PostField> fields, String tagName, String cursor, int pageSize, boolean includeTags);
+
+    /**
+     * Updates title and text of post
      * @param postRequestDTO DTO for post requests
+     * @param expectedVersion Version the client read (If-Match), null to update unconditionally
+     * @return Updated post
+     */
+    PostResponseDTO updatePost(Long id, PostRequestDTO postRequestDTO, Long expectedVersion);
+
+    /**
+     * Updates only the given fields of post, unchanged values are neither written nor reindexed
+     * @param patch Fields to change, null fields are kept
+     * @param expectedVersion Version the client read (If-Match), null to skip the check
      * @return Updated post
      */
-    PostResponseDTO updatePost(Long id, PostRequestDTO postRequestDTO);
+    PostResponseDTO patchPost(Long id, PostPatchRequestDTO patch, Long expectedVersion);
 
     /**
      * Deletes post
@@ -85,4 +184,14 @@ public interface PostService {
      * @return Page of matching posts
      */
     Page<PostResponseDTO> searchByKeyword(String keyword, int pageNo, int pageSize);
+
+    /**
+     * Searches like searchByKeyword, but only reads the requested fields of the page of hits
+     * @param fields Requested fields, with the ID
+     * @param keyword Keyword to look for
+     * @param pageNo Page number
+     * @param pageSize Page size
+     * @return Page of matching posts with the requested fields, in relevance order
+     */
+    Page<PostFieldsDTO> searchFieldsByKeyword(Set<PostField> fields, String keyword, int pageNo, int pageSize);
 }
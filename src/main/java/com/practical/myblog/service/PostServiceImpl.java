@@ -1,21 +1,38 @@
 package com.practical.myblog.service;
 
+import com.practical.myblog.dto.BulkTagOperationRequestDTO;
+import com.practical.myblog.dto.BulkTagOperationResponseDTO;
+import com.practical.myblog.dto.CursorPageResponseDTO;
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostFieldsDTO;
+import com.practical.myblog.dto.PostPatchRequestDTO;
 import com.practical.myblog.dto.PostRequestDTO;
 import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.dto.PostTagNameDTO;
+import com.practical.myblog.dto.PostVersion;
+import com.practical.myblog.dto.TagPostCountDTO;
 import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.exception.PostConflictException;
 import com.practical.myblog.exception.PostValidationException;
 import com.practical.myblog.exception.TagValidationException;
+import com.practical.myblog.mapper.PostMapper;
 import com.practical.myblog.model.Post;
-import com.practical.myblog.model.Tag;
+import com.practical.myblog.model.PostBody;
 import com.practical.myblog.repository.PostRepository;
-import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.repository.PostStatsRepository;
 import com.practical.myblog.util.ErrorMessages;
+import com.practical.myblog.util.PostCursor;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.engine.search.query.SearchResult;
 import org.hibernate.search.mapper.orm.Search;
 import org.jetbrains.annotations.NotNull;
-import org.modelmapper.ModelMapper;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
@@ -27,8 +44,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -37,52 +64,110 @@ import java.util.stream.Collectors;
 public class PostServiceImpl implements PostService {
 
     private final PostRepository postRepository;
-    private final TagRepository tagRepository;
-    private final ModelMapper modelMapper;
+    private final PostMapper postMapper;
     private final EntityManager entityManager;
+    private final PostResponseCache postResponseCache;
+    private final PostStatsRepository postStatsRepository;
+    private final TagDictionary tagDictionary;
+    private final TagPostCounts tagPostCounts;
+    private final TagPostingLists tagPostingLists;
+    private final PostViewCounter postViewCounter;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
 
     @Override
-    public Page<PostResponseDTO> getAllPosts(int pageNo, int pageSize) {
-        log.info("Retrieving all posts with pagination - Page: {}, Size: {}", pageNo, pageSize);
+    public Page<PostResponseDTO> getAllPosts(int pageNo, int pageSize, boolean includeTags) {
+        log.debug("Retrieving all posts with pagination - Page: {}, Size: {}", pageNo, pageSize);
         Pageable pageable = PageRequest.of(pageNo, pageSize);
-        return postRepository.findAll(pageable)
-                .map(post -> modelMapper.map(post, PostResponseDTO.class));
+        var posts = postRepository.findAllPostResponses(pageable);
+        if (includeTags) {
+            addTagNames(posts.getContent());
+        }
+        return posts;
     }
 
     @Override
-    public PostResponseDTO getPost(Long id) {
-        log.info("Retrieving post with id: {}", id);
-        return postRepository.findById(id)
-                .map(post -> modelMapper.map(post, PostResponseDTO.class))
+    public CursorPageResponseDTO<PostResponseDTO> getPostsAfter(String cursor, int pageSize, boolean includeTags) {
+        long afterId = PostCursor.decode(cursor);
+        int limit = cursorPageSize(pageSize);
+        log.debug("Retrieving posts after id: {}, Size: {}", afterId, limit);
+        // One extra row tells whether there is a next page, without a count query
+        var posts = postRepository.findPostResponsesAfterId(afterId, PageRequest.of(0, limit + 1));
+        var page = toCursorPage(posts, limit);
+        if (includeTags) {
+            addTagNames(page.getContent());
+        }
+        return page;
+    }
+
+    @Override
+    public Page<PostFieldsDTO> getAllPostFields(Set<PostField> fields, int pageNo, int pageSize, boolean includeTags) {
+        log.debug("Retrieving fields: {} of all posts - Page: {}, Size: {}", fields, pageNo, pageSize);
+        var posts = postRepository.findPostFields(fields, null, PageRequest.of(pageNo, pageSize));
+        if (includeTags) {
+            addTagNamesToFields(posts.getContent());
+        }
+        return posts;
+    }
+
+    @Override
+    public CursorPageResponseDTO<PostFieldsDTO> getPostFieldsAfter(Set<PostField> fields, String cursor, int pageSize, boolean includeTags) {
+        long afterId = PostCursor.decode(cursor);
+        int limit = cursorPageSize(pageSize);
+        log.debug("Retrieving fields: {} of posts after id: {}, Size: {}", fields, afterId, limit);
+        var page = toCursorPage(postRepository.findPostFieldsAfterId(fields, null, afterId, limit + 1), limit);
+        if (includeTags) {
+            addTagNamesToFields(page.getContent());
+        }
+        return page;
+    }
+
+    @Override
+    public PostResponseDTO getPost(Long id, boolean includeTags) {
+        log.debug("Retrieving post with id: {}", id);
+        return postResponseCache.get(id, includeTags, this::loadPostWithTags);
+    }
+
+    // Cached posts always carry their tag names, so one entry serves both variants of GET /posts/{id}
+    private PostResponseDTO loadPostWithTags(Long id) {
+        log.debug("Loading post into cache with id: {}", id);
+        var post = postRepository.findPostResponseById(id)
                 .orElseThrow(() -> new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id));
+        addTagNames(List.of(post));
+        post.setTags(Collections.unmodifiableSet(post.getTags()));
+        return post;
     }
 
     @Override
+    @Transactional
     public PostResponseDTO addPost(PostRequestDTO postRequestDTO) {
         isTitleEmpty(postRequestDTO);
 
-        Post post = modelMapper.map(postRequestDTO, Post.class);
+        Post post = postMapper.toEntity(postRequestDTO);
         log.info("Adding post with title: {}", postRequestDTO.getTitle());
         Post savedPost = postRepository.save(post);
+        // The body shares the id the post got from the sequence, both rows are inserted on commit
+        savedPost.getBody().setPostId(savedPost.getId());
+        entityManager.persist(savedPost.getBody());
         log.info("Post added with id: {}", savedPost.getId());
 
-        return modelMapper.map(savedPost, PostResponseDTO.class);
+        return postMapper.toResponseWithBody(savedPost);
     }
 
     @Override
     public Set<TagResponseDTO> getTagsOfPost(Long id) {
-        log.info("Retrieving tags for post id: {}", id);
-        if (postRepository.findById(id).isEmpty()) {
+        log.debug("Retrieving tags for post id: {}", id);
+        var tags = postRepository.tagResponsesByPost(id);
+        // The post only has to be looked up when it has no tags
+        if (tags.isEmpty() && !postRepository.existsById(id)) {
             log.error("Post not found with id: {}", id);
             throw new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id);
         }
-
-         return postRepository.tagsByPost(id).stream()
-                 .map(tag -> modelMapper.map(tag, TagResponseDTO.class))
-                 .collect(Collectors.toSet());
+        return tags;
     }
 
     @Override
+    @Transactional
     public ResponseEntity<PostResponseDTO> addTagsToPost(Long id, List<String> tagNames) {
         if (tagNames.isEmpty()) {
             log.error("Tag names cannot be empty");
@@ -90,16 +175,26 @@ public class PostServiceImpl implements PostService {
         }
 
         log.info("Adding tags to post id: {} with tags: {}", id, tagNames);
-        Post post = postRepository.findById(id)
+        var postResponseDTO = postRepository.findPostResponseById(id)
                 .orElseThrow(() -> new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id));
 
-        Set<Tag> tags = retrieveTags(id, tagNames, ErrorMessages.TAG_ALREADY_EXISTS);
-        post.getTags().addAll(tags);
-
-        Post savedPost = postRepository.save(post);
-        log.info("Tags added to post id: {}", savedPost.getId());
-
-        var postResponseDTO = new PostResponseDTO(savedPost.getId(), savedPost.getTitle(), savedPost.getText(), post.getImageUrl(), post.getVideoUrl());
+        var attachedTagNames = tagNamesOfPost(id);
+        tagNames.stream()
+                .filter(attachedTagNames::contains)
+                .findFirst()
+                .ifPresent(tagName -> {
+                    log.error("Tag already exists for post: {}", tagName);
+                    throw new TagValidationException(tagName + ErrorMessages.TAG_ALREADY_EXISTS);
+                });
+
+        var tagIds = resolveTagIds(tagNames);
+        int attached = postRepository.attachTags(List.of(id), tagIds);
+        postRepository.touchPosts(List.of(id), Instant.now());
+        // None of the tags was attached before, each one gains the post
+        tagPostCounts.increment(tagIds);
+        tagPostingLists.add(tagIds, List.of(id));
+        postResponseCache.invalidate(id);
+        log.info("{} tags added to post id: {}", attached, id);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Post-ID", String.valueOf(postResponseDTO.getId()));
@@ -108,101 +203,346 @@ public class PostServiceImpl implements PostService {
 
 
     @Override
+    @Transactional
     public void removeTagsFromPost(Long postId, List<String> tagNames) {
         if (tagNames.isEmpty()) {
             log.error("Tag names cannot be empty on removeTagsFromPost");
             throw new TagValidationException(ErrorMessages.TAG_NAME_CANNOT_BE_EMPTY);
         }
+        tagNames.forEach(this::isTagEmpty);
 
         log.info("Removing tags from post id: {} with tags: {}", postId, tagNames);
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + postId));
-
-        Set<Tag> tagsToRemove = retrieveTags(postId, tagNames, ErrorMessages.TAG_NOT_EXISTS_IN_POST);
-
-        Set<Tag> tagsInPost = postRepository.tagsByPost(postId);
+        // The tags of the post are read once, they validate the names and give the ids to delete
+        var tagsInPost = postRepository.tagResponsesByPost(postId);
         if (tagsInPost.isEmpty()) {
+            if (!postRepository.existsById(postId)) {
+                throw new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + postId);
+            }
             log.error("No tags found in post id: {}", postId);
             throw new PostValidationException(ErrorMessages.NO_TAGS_IN_POST);
         }
 
-        // Iterate through the tags to remove
-        for (Tag tagToRemove : tagsToRemove) {
-            if (!tagsInPost.contains(tagToRemove)) {
-                log.error("Tag not found in post: {}", tagToRemove.getName());
-                throw new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_NAME + tagToRemove.getName());
+        Map<String, Long> tagIdsByName = tagsInPost.stream()
+                .collect(Collectors.toMap(TagResponseDTO::getName, TagResponseDTO::getId));
+        Set<Long> tagIdsToRemove = new HashSet<>();
+        for (String tagName : tagNames) {
+            Long tagId = tagIdsByName.get(tagName);
+            if (tagId == null) {
+                log.error("Tag not found in post: {}", tagName);
+                throw new TagValidationException(tagName + ErrorMessages.TAG_NOT_EXISTS_IN_POST);
             }
-            tagsInPost.remove(tagToRemove);
+            tagIdsToRemove.add(tagId);
         }
 
-        post.setTags(tagsInPost);
-        postRepository.save(post);
+        postRepository.detachTags(List.of(postId), tagIdsToRemove);
+        postRepository.touchPosts(List.of(postId), Instant.now());
+        tagPostCounts.decrement(tagIdsToRemove);
+        tagPostingLists.remove(tagIdsToRemove, List.of(postId));
+        postResponseCache.invalidate(postId);
+    }
+
+    @Override
+    @Transactional
+    public BulkTagOperationResponseDTO applyTagOperation(BulkTagOperationRequestDTO request) {
+        var tagIds = resolveTagIds(request.getTags());
+        var postIds = new HashSet<>(request.getPostIds());
+
+        log.info("Applying {} of tags: {} to {} posts", request.getOperation(), request.getTags(), postIds.size());
+        // Pairs that already exist (or don't) are skipped by the statements, so the tag counts
+        // change by the difference of the relations before and after
+        var linksBefore = linkCountsByTag(postRepository.countLinksPerTag(postIds, tagIds));
+        int changedRows = switch (request.getOperation()) {
+            case ATTACH -> postRepository.attachTags(postIds, tagIds);
+            case DETACH -> postRepository.detachTags(postIds, tagIds);
+        };
+        if (changedRows > 0) {
+            postRepository.touchPosts(postIds, Instant.now());
+            var deltas = linkCountsByTag(postRepository.countLinksPerTag(postIds, tagIds));
+            linksBefore.forEach((tagId, count) -> deltas.merge(tagId, -count, Long::sum));
+            tagPostCounts.adjust(deltas);
+            switch (request.getOperation()) {
+                // Unknown post ids are skipped by the insert, they must not show up in the posting lists
+                case ATTACH -> tagPostingLists.add(tagIds, postRepository.findExistingIds(postIds));
+                case DETACH -> tagPostingLists.remove(tagIds, postIds);
+            }
+        }
+        postResponseCache.invalidateAll(postIds);
+        log.info("{} of tags changed {} post_tag rows", request.getOperation(), changedRows);
+        return new BulkTagOperationResponseDTO(request.getOperation(), changedRows);
     }
 
     @Override
-    public Page<PostResponseDTO> getAllPostsForTag(String tagName, int pageNo, int pageSize) {
+    public Page<PostResponseDTO> getAllPostsForTag(String tagName, int pageNo, int pageSize, boolean includeTags) {
         isTagEmpty(tagName);
 
-        log.info("Retrieving posts for tag: {}", tagName);
+        log.debug("Retrieving posts for tag: {}", tagName);
         Pageable pageable = PageRequest.of(pageNo, pageSize);
-        var matchingPosts = postRepository.findAllPostsByTagName(tagName, pageable)
+        var posts = postRepository.findAllPostResponsesByTagName(tagName, pageable)
                 .orElseThrow(() -> new PostValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_NAME + tagName));
+        if (includeTags) {
+            addTagNames(posts.getContent());
+        }
+        return posts;
+    }
+
+    @Override
+    public Page<PostResponseDTO> getAllPostsForTags(List<String> all, List<String> any, List<String> none, int pageNo, int pageSize, boolean includeTags) {
+        Pageable pageable = PageRequest.of(pageNo, pageSize);
+        if (isNullOrEmpty(all) && isNullOrEmpty(any)) {
+            log.error("Tag query without all or any tags");
+            throw new TagValidationException(ErrorMessages.TAG_QUERY_NEEDS_ALL_OR_ANY);
+        }
 
-        return matchingPosts.map(post -> modelMapper.map(post, PostResponseDTO.class));
+        log.debug("Retrieving posts for tags, all: {}, any: {}, none: {}", all, any, none);
+        // The query runs on the posting lists in memory, only the ids of the requested page go to the database
+        Roaring64NavigableMap postIds = tagPostingLists.match(
+                resolveOptionalTagIds(all), resolveOptionalTagIds(any), resolveOptionalTagIds(none));
+        long total = postIds.getLongCardinality();
+        long end = Math.min(pageable.getOffset() + pageable.getPageSize(), total);
+        List<Long> pageIds = new ArrayList<>();
+        for (long rank = pageable.getOffset(); rank < end; rank++) {
+            pageIds.add(postIds.select(rank));
+        }
+
+        List<PostResponseDTO> content = List.of();
+        if (!pageIds.isEmpty()) {
+            Map<Long, PostResponseDTO> rowsById = postRepository.findPostResponsesByIds(pageIds).stream()
+                    .collect(Collectors.toMap(PostResponseDTO::getId, Function.identity()));
+            // Id order of the bitmap, posts deleted since the ids were picked are skipped
+            content = pageIds.stream()
+                    .map(rowsById::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+        if (includeTags) {
+            addTagNames(content);
+        }
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Override
-    public PostResponseDTO updatePost(Long id, PostRequestDTO postRequestDTO) {
+    public CursorPageResponseDTO<PostResponseDTO> getPostsForTagAfter(String tagName, String cursor, int pageSize, boolean includeTags) {
+        isTagEmpty(tagName);
+
+        long afterId = PostCursor.decode(cursor);
+        int limit = cursorPageSize(pageSize);
+        log.debug("Retrieving posts for tag: {} after id: {}, Size: {}", tagName, afterId, limit);
+        var posts = postRepository.findPostResponsesByTagNameAfterId(tagName, afterId, PageRequest.of(0, limit + 1));
+        var page = toCursorPage(posts, limit);
+        if (includeTags) {
+            addTagNames(page.getContent());
+        }
+        return page;
+    }
+
+    @Override
+    public Page<PostFieldsDTO> getAllPostFieldsForTag(Set<PostField> fields, String tagName, int pageNo, int pageSize, boolean includeTags) {
+        isTagEmpty(tagName);
+
+        log.debug("Retrieving fields: {} of posts for tag: {}", fields, tagName);
+        var posts = postRepository.findPostFields(fields, tagName, PageRequest.of(pageNo, pageSize));
+        if (includeTags) {
+            addTagNamesToFields(posts.getContent());
+        }
+        return posts;
+    }
+
+    @Override
+    public CursorPageResponseDTO<PostFieldsDTO> getPostFieldsForTagAfter(Set<PostField> fields, String tagName, String cursor, int pageSize, boolean includeTags) {
+        isTagEmpty(tagName);
+
+        long afterId = PostCursor.decode(cursor);
+        int limit = cursorPageSize(pageSize);
+        log.debug("Retrieving fields: {} of posts for tag: {} after id: {}, Size: {}", fields, tagName, afterId, limit);
+        var page = toCursorPage(postRepository.findPostFieldsAfterId(fields, tagName, afterId, limit + 1), limit);
+        if (includeTags) {
+            addTagNamesToFields(page.getContent());
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional
+    public PostResponseDTO updatePost(Long id, PostRequestDTO postRequestDTO, Long expectedVersion) {
         isTitleEmpty(postRequestDTO);
 
         log.info("Updating post with id: {}", id);
-        Post updatedPost = postRepository.findById(id)
-                .map(existingPost -> {
-                    existingPost.setTitle(postRequestDTO.getTitle());
-                    existingPost.setText(postRequestDTO.getText());
-                    return postRepository.save(existingPost);
-                })
-                .orElseThrow(() -> new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id));
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", postRequestDTO.getTitle());
+        changes.put("text", postRequestDTO.getText());
+        updateColumns(id, expectedVersion, changes);
 
-        log.info("Post updated with id: {}", updatedPost.getId());
-        return new PostResponseDTO(id, updatedPost.getTitle(), updatedPost.getText(), updatedPost.getImageUrl(), updatedPost.getVideoUrl());
+        log.info("Post updated with id: {}", id);
+        return findPostResponse(id);
     }
 
     @Override
+    @Transactional
+    public PostResponseDTO patchPost(Long id, PostPatchRequestDTO patch, Long expectedVersion) {
+        if (patch.getTitle() != null && patch.getTitle().trim().isEmpty()) {
+            log.error("Post title cannot be empty on patchPost");
+            throw new PostValidationException(ErrorMessages.POST_TITLE_CANNOT_BE_EMPTY);
+        }
+
+        var current = findPostResponse(id);
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new PostConflictException(ErrorMessages.POST_VERSION_CONFLICT + id);
+        }
+
+        // Only values that differ from the stored ones are written
+        Map<String, Object> changes = new HashMap<>();
+        putIfChanged(changes, "title", current.getTitle(), patch.getTitle());
+        putIfChanged(changes, "text", current.getText(), patch.getText());
+        putIfChanged(changes, "imageUrl", current.getImageUrl(), patch.getImageUrl());
+        putIfChanged(changes, "videoUrl", current.getVideoUrl(), patch.getVideoUrl());
+        if (changes.isEmpty()) {
+            log.debug("Nothing to change in post with id: {}", id);
+            return current;
+        }
+
+        log.info("Patching post with id: {}, fields: {}", id, changes.keySet());
+        // The diff was made against the version just read, a concurrent write in between is a conflict
+        updateColumns(id, current.getVersion(), changes);
+        return findPostResponse(id);
+    }
+
+    @Override
+    @Transactional
     public void deletePost(Long id) {
         log.info("Deleting post with id: {}", id);
-        if (postRepository.existsById(id)) {
-            postRepository.deleteById(id);
-            log.info("Post deleted with id: {}", id);
-        } else {
+        var tagIds = postRepository.countLinksPerTag(List.of(id)).stream()
+                .map(TagPostCountDTO::getId)
+                .toList();
+        postRepository.deleteTagLinksOfPosts(List.of(id));
+        postStatsRepository.deleteByPostIds(List.of(id));
+        postViewCounter.forget(List.of(id));
+        postRepository.deleteBodiesOfPosts(List.of(id));
+        if (postRepository.deleteByIds(List.of(id)) == 0) {
             log.error("Post not found with id on deletePost: {}", id);
             throw new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id);
         }
+        // The bulk delete bypasses automatic indexing
+        Search.session(entityManager).indexingPlan().purge(Post.class, id, null);
+        postResponseCache.invalidate(id);
+        tagPostCounts.decrement(tagIds);
+        tagPostingLists.remove(tagIds, List.of(id));
+        log.info("Post deleted with id: {}", id);
     }
 
-    private @NotNull Set<Tag> retrieveTags(Long postId, List<String> tagNames, String errorMessage) {
-        return tagNames.stream()
-                .peek(this::isTagEmpty)  // Validate each tag without modifying the stream
-                .map(tagName -> {
-                    // Check if the tag already exists for the post
-                    if (postRepository.existsTagForPost(postId, tagName)) {
-                        log.error("Tag already exists for post: {}", tagName);
-                        throw new TagValidationException(tagName + errorMessage);
-                    }
-                    return tagRepository.findByName(tagName)
-                            .orElseThrow(() -> new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_NAME + tagName));
-                }).collect(Collectors.toSet());
+    /**
+     * Writes the changed columns of a post with one UPDATE that also moves the version,
+     * instead of loading and merging the entity. A changed text goes to the body row
+     * and its excerpt to the post row.
+     * @param expectedVersion Version the change was based on, null to overwrite whatever is stored
+     * @throws PostConflictException if the post has another version by now
+     */
+    private void updateColumns(Long id, Long expectedVersion, Map<String, Object> changes) {
+        boolean textChanged = changes.containsKey("text");
+        String text = (String) changes.get("text");
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Post> update = cb.createCriteriaUpdate(Post.class);
+        Root<Post> post = update.from(Post.class);
+        changes.forEach((field, value) -> {
+            if (!field.equals("text")) {
+                update.set(post.get(field), value);
+            }
+        });
+        if (textChanged) {
+            update.set(post.<String>get("excerpt"), Post.excerptOf(text));
+        }
+        update.set(post.<Long>get("version"), cb.sum(post.<Long>get("version"), 1L));
+        update.set(post.<Instant>get("updatedAt"), Instant.now());
+
+        Predicate matches = cb.equal(post.get("id"), id);
+        if (expectedVersion != null) {
+            matches = cb.and(matches, cb.equal(post.get("version"), expectedVersion));
+        }
+        update.where(matches);
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            if (!postRepository.existsById(id)) {
+                throw new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id);
+            }
+            log.warn("Version conflict on update of post id: {}, expected version: {}", id, expectedVersion);
+            throw new PostConflictException(ErrorMessages.POST_VERSION_CONFLICT + id);
+        }
+        if (textChanged) {
+            // Merge also inserts the body of a post that has none yet
+            entityManager.merge(new PostBody(id, text));
+        }
+
+        // Bulk updates bypass the automatic indexing of Hibernate Search. Only title and text are indexed,
+        // so other changes leave the Lucene document alone
+        if (changes.containsKey("title") || textChanged) {
+            Search.session(entityManager).indexingPlan().addOrUpdate(entityManager.getReference(Post.class, id));
+        }
+        postResponseCache.invalidate(id);
+    }
+
+    private static void putIfChanged(Map<String, Object> changes, String field, String current, String requested) {
+        if (requested != null && !requested.equals(current)) {
+            changes.put(field, requested);
+        }
+    }
+
+    private PostResponseDTO findPostResponse(Long id) {
+        return postRepository.findPostResponseById(id)
+                .orElseThrow(() -> new PostValidationException(ErrorMessages.POST_NOT_FOUND_WITH_ID + id));
+    }
+
+    /**
+     * Resolves all tag names from the tag dictionary, without a query
+     * @throws TagValidationException if a name is empty or a tag doesn't exist
+     */
+    private @NotNull Set<Long> resolveTagIds(List<String> tagNames) {
+        tagNames.forEach(this::isTagEmpty);
+        Set<Long> tagIds = new HashSet<>();
+        Set<String> missingTagNames = new LinkedHashSet<>();
+        for (String tagName : tagNames) {
+            Long tagId = tagDictionary.findId(tagName);
+            if (tagId == null) {
+                missingTagNames.add(tagName);
+            } else {
+                tagIds.add(tagId);
+            }
+        }
+        if (!missingTagNames.isEmpty()) {
+            log.error("Tags not found: {}", missingTagNames);
+            throw new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_NAME + String.join(", ", missingTagNames));
+        }
+        return tagIds;
+    }
+
+    private Set<Long> resolveOptionalTagIds(List<String> tagNames) {
+        return isNullOrEmpty(tagNames) ? Set.of() : resolveTagIds(tagNames);
+    }
+
+    private static boolean isNullOrEmpty(List<String> tagNames) {
+        return tagNames == null || tagNames.isEmpty();
+    }
+
+    private static Map<Long, Long> linkCountsByTag(List<TagPostCountDTO> counts) {
+        Map<Long, Long> linksByTag = new HashMap<>();
+        counts.forEach(count -> linksByTag.put(count.getId(), count.getPostCount()));
+        return linksByTag;
+    }
+
+    private Set<String> tagNamesOfPost(Long postId) {
+        return postRepository.tagResponsesByPost(postId).stream()
+                .map(TagResponseDTO::getName)
+                .collect(Collectors.toSet());
     }
 
     @Override
     public Page<PostResponseDTO> searchByKeyword(String keyword, int pageNo, int pageSize) {
-        log.info("Searching for posts with keyword: '{}', page: {}, size: {}", keyword, pageNo, pageSize);
+        log.debug("Searching for posts with keyword: '{}', page: {}, size: {}", keyword, pageNo, pageSize);
         Pageable pageable = PageRequest.of(pageNo, pageSize);
 
         List<Post> result = Search.session(entityManager)
                 .search(Post.class)
                 .where(f -> f.bool()
-                        .should(f.match().fields("title", "text").matching(keyword))
+                        .should(f.match().fields("title", "body.text").matching(keyword))
                 )
                 .fetchAllHits();
 
@@ -211,14 +551,43 @@ public class PostServiceImpl implements PostService {
             throw new PostValidationException(ErrorMessages.POST_NOT_FOUND_FOR_KEYWORD + keyword);
         }
 
-        List<PostResponseDTO> postResponseDTOs = result.stream()
-                .map(post -> modelMapper.map(post, PostResponseDTO.class))
-                .toList();
+        List<PostResponseDTO> postResponseDTOs = postMapper.toResponses(result);
 
-        log.info("Found {} posts for keyword: '{}'", postResponseDTOs.size(), keyword);
+        log.debug("Found {} posts for keyword: '{}'", postResponseDTOs.size(), keyword);
         return new PageImpl<>(postResponseDTOs, pageable, result.size());
     }
 
+    @Override
+    public Page<PostFieldsDTO> searchFieldsByKeyword(Set<PostField> fields, String keyword, int pageNo, int pageSize) {
+        log.debug("Searching fields: {} of posts with keyword: '{}', page: {}, size: {}", fields, keyword, pageNo, pageSize);
+
+        // Only the ids come from the index, the requested columns are read for the page of hits
+        SearchResult<Long> result = Search.session(entityManager)
+                .search(Post.class)
+                .select(f -> f.id(Long.class))
+                .where(f -> f.bool()
+                        .should(f.match().fields("title", "body.text").matching(keyword))
+                )
+                .fetch(pageNo * pageSize, pageSize);
+
+        long total = result.total().hitCount();
+        if (total == 0) {
+            log.warn("No posts found for keyword: '{}'", keyword);
+            throw new PostValidationException(ErrorMessages.POST_NOT_FOUND_FOR_KEYWORD + keyword);
+        }
+
+        Map<Long, PostFieldsDTO> rowsById = postRepository.findPostFieldsByIds(fields, result.hits()).stream()
+                .collect(Collectors.toMap(PostFieldsDTO::getId, Function.identity()));
+        // Relevance order of the hits, posts deleted since they were indexed are skipped
+        List<PostFieldsDTO> content = result.hits().stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        log.debug("Found {} posts for keyword: '{}'", total, keyword);
+        return new PageImpl<>(content, PageRequest.of(pageNo, pageSize), total);
+    }
+
     @Transactional
     @EventListener(ApplicationReadyEvent.class)
     public void rebuildIndexOnStartup() throws InterruptedException {
@@ -239,4 +608,40 @@ public class PostServiceImpl implements PostService {
             throw new TagValidationException(ErrorMessages.TAG_NAME_CANNOT_BE_EMPTY);
         }
     }
+
+    private static int cursorPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    private <T extends PostVersion> CursorPageResponseDTO<T> toCursorPage(List<T> posts, int limit) {
+        boolean hasNext = posts.size() > limit;
+        var content = hasNext ? posts.subList(0, limit) : posts;
+        String nextCursor = hasNext ? PostCursor.encode(content.get(content.size() - 1).getId()) : null;
+        return new CursorPageResponseDTO<>(content, nextCursor);
+    }
+
+    /**
+     * Fills the tag names of a page of posts with one query over post_tag, instead of one query per post
+     */
+    private void addTagNames(List<PostResponseDTO> posts) {
+        var tagNamesByPost = tagNamesByPostIds(posts);
+        posts.forEach(post -> post.setTags(tagNamesByPost.getOrDefault(post.getId(), Set.of())));
+    }
+
+    private void addTagNamesToFields(List<PostFieldsDTO> posts) {
+        var tagNamesByPost = tagNamesByPostIds(posts);
+        posts.forEach(post -> post.getFields().put("tags", tagNamesByPost.getOrDefault(post.getId(), Set.of())));
+    }
+
+    private Map<Long, Set<String>> tagNamesByPostIds(List<? extends PostVersion> posts) {
+        Map<Long, Set<String>> tagNamesByPost = new HashMap<>();
+        if (posts.isEmpty()) {
+            return tagNamesByPost;
+        }
+        var postIds = posts.stream().map(PostVersion::getId).toList();
+        for (PostTagNameDTO row : postRepository.findTagNamesByPostIds(postIds)) {
+            tagNamesByPost.computeIfAbsent(row.getPostId(), postId -> new TreeSet<>()).add(row.getTagName());
+        }
+        return tagNamesByPost;
+    }
 }
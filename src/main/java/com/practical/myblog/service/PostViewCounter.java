@@ -0,0 +1,205 @@
+package com.practical.myblog.service;
+
+import com.practical.myblog.dto.PopularPostDTO;
+import com.practical.myblog.repository.PostStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.practical.myblog.util.Transactions.afterCommit;
+
+/**
+ * Counts post views in memory and adds them to post_stats in batches, so a view costs no database write.
+ * Each post has a LongAdder, which spreads concurrent increments over cells instead of contending on one value.
+ * Views counted since the last flush are lost if the process dies.
+ * The most viewed posts are kept in memory as a bounded list. Totals only grow, so after a flush the new top
+ * is found among the old top and the posts just flushed; their totals are read, not the whole table.
+ * A full reload replaces the list periodically, to take in the views flushed by other instances,
+ * and after a delete removed one of its posts.
+ */
+@Slf4j
+@Service
+public class PostViewCounter {
+
+    // Rows are only inserted for posts that still exist, views of a post deleted during a flush are dropped
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO post_stats (post_id, view_count) SELECT id, ? FROM post WHERE id = ?
+            ON CONFLICT (post_id) DO UPDATE SET view_count = post_stats.view_count + ?
+            """;
+    private static final String MYSQL_UPSERT = """
+            INSERT INTO post_stats (post_id, view_count) SELECT id, ? FROM post WHERE id = ?
+            ON DUPLICATE KEY UPDATE view_count = post_stats.view_count + ?
+            """;
+    // Flushes between two full reloads of the most viewed posts
+    private static final int FULL_RELOAD_INTERVAL = 20;
+
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final PostStatsRepository postStatsRepository;
+    private final int batchSize;
+    private final int topSize;
+    private final Counter flushedViews;
+    private final Timer flushTimer;
+    private String upsertSql;
+    private volatile List<PopularPostDTO> mostViewed = List.of();
+    // Guarded by this, the first flush loads the list
+    private int flushesUntilReload = 0;
+
+    public PostViewCounter(
+            JdbcTemplate jdbcTemplate,
+            PostStatsRepository postStatsRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.posts.views.batch-size}") int batchSize,
+            @Value("${application.posts.views.top-size}") int topSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postStatsRepository = postStatsRepository;
+        this.batchSize = batchSize;
+        this.topSize = topSize;
+        this.flushedViews = meterRegistry.counter("post.views.flushed");
+        this.flushTimer = meterRegistry.timer("post.views.flush.duration");
+    }
+
+    public void recordView(Long postId) {
+        recordViews(postId, 1);
+    }
+
+    /**
+     * Drops the pending views and the popular list entries of deleted posts, once the delete commits
+     */
+    public void forget(Collection<Long> postIds) {
+        Set<Long> deleted = Set.copyOf(postIds);
+        afterCommit(() -> {
+            deleted.forEach(pendingViews::remove);
+            synchronized (this) {
+                List<PopularPostDTO> remaining = mostViewed.stream()
+                        .filter(post -> !deleted.contains(post.getId()))
+                        .toList();
+                if (remaining.size() < mostViewed.size()) {
+                    mostViewed = remaining;
+                    // Posts below the old top may belong in it now
+                    flushesUntilReload = 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * @param limit Number of posts, at most application.posts.views.top-size
+     * @return Most viewed posts as of the last flush
+     */
+    public List<PopularPostDTO> getMostViewed(int limit) {
+        List<PopularPostDTO> snapshot = mostViewed;
+        return snapshot.subList(0, Math.max(0, Math.min(limit, snapshot.size())));
+    }
+
+    /**
+     * Adds the views counted since the last flush to post_stats with batched upserts,
+     * then updates the most viewed posts. Runs on one scheduler thread, views keep being counted meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${application.posts.views.flush-interval}")
+    public void flush() {
+        long start = System.nanoTime();
+        List<long[]> rows = new ArrayList<>();
+        pendingViews.forEach((postId, views) -> {
+            long count = views.sumThenReset();
+            if (count > 0) {
+                rows.add(new long[]{postId, count});
+            } else {
+                // Not viewed since the last flush, a view racing with the removal can be lost
+                pendingViews.remove(postId, views);
+            }
+        });
+
+        if (!rows.isEmpty()) {
+            // Same lock order for flushes from several instances
+            rows.sort(Comparator.comparingLong(row -> row[0]));
+            try {
+                jdbcTemplate.batchUpdate(upsertSql(), rows, batchSize, (ps, row) -> {
+                    ps.setLong(1, row[1]);
+                    ps.setLong(2, row[0]);
+                    ps.setLong(3, row[1]);
+                });
+            } catch (DataAccessException e) {
+                // Counted again with the next flush
+                log.warn("View counts of {} posts could not be flushed", rows.size(), e);
+                rows.forEach(row -> recordViews(row[0], row[1]));
+                return;
+            }
+            rows.forEach(row -> flushedViews.increment(row[1]));
+        }
+
+        updateMostViewed(rows);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        flushTimer.record(elapsed);
+        log.debug("Flushed views of {} posts in {} ms", rows.size(), elapsed.toMillis());
+    }
+
+    private synchronized void updateMostViewed(List<long[]> flushedRows) {
+        if (--flushesUntilReload < 0) {
+            mostViewed = List.copyOf(postStatsRepository.findMostViewed(PageRequest.of(0, topSize)));
+            flushesUntilReload = FULL_RELOAD_INTERVAL;
+            return;
+        }
+        if (flushedRows.isEmpty()) {
+            return;
+        }
+
+        Map<Long, PopularPostDTO> candidates = new HashMap<>();
+        mostViewed.forEach(post -> candidates.put(post.getId(), post));
+        for (int from = 0; from < flushedRows.size(); from += batchSize) {
+            List<Long> postIds = flushedRows.subList(from, Math.min(from + batchSize, flushedRows.size())).stream()
+                    .map(row -> row[0])
+                    .toList();
+            // Current totals, deleted posts are left out by the join
+            postStatsRepository.findViewCounts(postIds).forEach(post -> candidates.put(post.getId(), post));
+        }
+        mostViewed = candidates.values().stream()
+                .sorted(Comparator.comparingLong(PopularPostDTO::getViewCount).reversed()
+                        .thenComparing(PopularPostDTO::getId))
+                .limit(topSize)
+                .toList();
+    }
+
+    private void recordViews(Long postId, long count) {
+        LongAdder views = pendingViews.get(postId);
+        if (views == null) {
+            views = pendingViews.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        views.add(count);
+    }
+
+    // Only called from flush, there are no concurrent callers
+    private String upsertSql() {
+        if (upsertSql == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equals(database)) {
+                upsertSql = POSTGRES_UPSERT;
+            } else if ("MySQL".equals(database)) {
+                upsertSql = MYSQL_UPSERT;
+            } else {
+                throw new IllegalStateException("View counts can't be stored on database: " + database);
+            }
+        }
+        return upsertSql;
+    }
+}
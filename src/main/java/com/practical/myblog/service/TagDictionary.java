@@ -0,0 +1,105 @@
+package com.practical.myblog.service;
+
+import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.repository.TagRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.practical.myblog.util.Transactions.afterCommit;
+
+/**
+ * All tag names and ids in memory, so tag resolution and uniqueness checks don't query the database.
+ * Readers use an immutable snapshot without locking, writers build a new snapshot and swap it in.
+ * Changes are applied after the transaction that made them commits, so lookups never see uncommitted tags.
+ * The scheduled reload picks up changes made outside this instance.
+ */
+@Slf4j
+@Component
+public class TagDictionary implements InitializingBean {
+
+    private record Snapshot(Map<String, Long> idsByName, Map<Long, String> namesById) {
+    }
+
+    private final TagRepository tagRepository;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public TagDictionary(TagRepository tagRepository, MeterRegistry meterRegistry) {
+        this.tagRepository = tagRepository;
+        Gauge.builder("tag.dictionary.size", this, TagDictionary::size).register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reload();
+    }
+
+    /**
+     * @return Id of the tag, null if there is no tag with this name
+     */
+    public Long findId(String name) {
+        return snapshot.idsByName().get(name);
+    }
+
+    public boolean contains(String name) {
+        return snapshot.idsByName().containsKey(name);
+    }
+
+    /**
+     * @return Name of the tag, null if there is no tag with this id
+     */
+    public String findName(Long id) {
+        return snapshot.namesById().get(id);
+    }
+
+    public int size() {
+        return snapshot.namesById().size();
+    }
+
+    /**
+     * Adds a tag, or renames it if the id is known
+     */
+    public void put(Long id, String name) {
+        afterCommit(() -> update(idsByName -> {
+            idsByName.values().remove(id);
+            idsByName.put(name, id);
+        }));
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> update(idsByName -> idsByName.values().removeAll(removed)));
+    }
+
+    @Scheduled(fixedDelayString = "${application.tags.dictionary.refresh-interval}",
+            initialDelayString = "${application.tags.dictionary.refresh-interval}")
+    public synchronized void reload() {
+        Map<String, Long> idsByName = new HashMap<>();
+        for (TagResponseDTO tag : tagRepository.findAllTagResponses()) {
+            idsByName.put(tag.getName(), tag.getId());
+        }
+        publish(idsByName);
+        log.debug("Tag dictionary loaded with {} tags", idsByName.size());
+    }
+
+    private synchronized void update(Consumer<Map<String, Long>> change) {
+        Map<String, Long> idsByName = new HashMap<>(snapshot.idsByName());
+        change.accept(idsByName);
+        publish(idsByName);
+    }
+
+    private void publish(Map<String, Long> idsByName) {
+        Map<Long, String> namesById = new HashMap<>();
+        idsByName.forEach((name, id) -> namesById.put(id, name));
+        snapshot = new Snapshot(Map.copyOf(idsByName), Map.copyOf(namesById));
+    }
+}
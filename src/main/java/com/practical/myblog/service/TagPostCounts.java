@@ -0,0 +1,175 @@
+package com.practical.myblog.service;
+
+import com.practical.myblog.dto.TagPostCountDTO;
+import com.practical.myblog.repository.TagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.practical.myblog.util.Transactions.afterCommit;
+
+/**
+ * Number of posts of each tag, kept in memory for the tag cloud.
+ * Attaching, detaching and deleting adjust the counts after their transaction commits, so no COUNT over post_tag is needed.
+ * The tags ranked by count are rebuilt on the first read after a change, a read only copies the top of that ranking.
+ * The scheduled reconcile replaces the counts with the ones in the database, which corrects
+ * changes of other instances. Its query runs without the lock, so request threads applying deltas don't wait for it;
+ * if a delta was applied meanwhile the result is dropped and the query runs again.
+ */
+@Slf4j
+@Service
+public class TagPostCounts implements InitializingBean {
+
+    private record RankedTag(long tagId, long postCount) {
+    }
+
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final TagRepository tagRepository;
+    private final TagDictionary tagDictionary;
+    // Guarded by this, readers only see the ranking
+    private final Map<Long, Long> counts = new HashMap<>();
+    // Null after a change, rebuilt by the next read
+    private volatile List<RankedTag> ranking = List.of();
+    // Guarded by this, moved by every change of the counts
+    private long generation;
+
+    public TagPostCounts(TagRepository tagRepository, TagDictionary tagDictionary) {
+        this.tagRepository = tagRepository;
+        this.tagDictionary = tagDictionary;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reconcile();
+    }
+
+    /**
+     * @param limit Number of tags
+     * @return Tags with the most posts, tags without posts are left out
+     */
+    public List<TagPostCountDTO> getTop(int limit) {
+        List<RankedTag> snapshot = ranking;
+        if (snapshot == null) {
+            snapshot = rank();
+        }
+        List<TagPostCountDTO> top = new ArrayList<>(Math.max(0, Math.min(limit, snapshot.size())));
+        for (RankedTag tag : snapshot) {
+            if (top.size() >= limit) {
+                break;
+            }
+            // Names come from the dictionary, so renames don't touch the counts
+            String name = tagDictionary.findName(tag.tagId());
+            if (name != null) {
+                top.add(new TagPostCountDTO(tag.tagId(), name, tag.postCount()));
+            }
+        }
+        return top;
+    }
+
+    public void increment(Collection<Long> tagIds) {
+        adjust(tagIds, 1);
+    }
+
+    public void decrement(Collection<Long> tagIds) {
+        adjust(tagIds, -1);
+    }
+
+    /**
+     * @param deltas Change of the post count per tag id
+     */
+    public void adjust(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> changes = Map.copyOf(deltas);
+        afterCommit(() -> apply(changes));
+    }
+
+    public void removeAll(Collection<Long> tagIds) {
+        List<Long> removed = List.copyOf(tagIds);
+        afterCommit(() -> {
+            synchronized (this) {
+                removed.forEach(counts::remove);
+                generation++;
+                ranking = null;
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.tags.counts.reconcile-interval}",
+            initialDelayString = "${application.tags.counts.reconcile-interval}")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            long generationBefore;
+            synchronized (this) {
+                generationBefore = generation;
+            }
+            Map<Long, Long> stored = new HashMap<>();
+            for (TagPostCountDTO tag : tagRepository.countPostsPerTag()) {
+                stored.put(tag.getId(), tag.getPostCount());
+            }
+            if (swapIfUnchanged(stored, generationBefore)) {
+                return;
+            }
+        }
+        log.debug("Post counts of tags kept changing during the reconcile, trying again with the next one");
+    }
+
+    /**
+     * @return False if a delta was applied since the query started, replacing the counts could drop it
+     */
+    private synchronized boolean swapIfUnchanged(Map<Long, Long> stored, long generationBefore) {
+        if (generation != generationBefore) {
+            return false;
+        }
+        if (!stored.equals(counts)) {
+            if (!counts.isEmpty()) {
+                log.info("Post counts of tags corrected, {} tags counted", stored.size());
+            }
+            counts.clear();
+            counts.putAll(stored);
+            generation++;
+            ranking = null;
+        }
+        return true;
+    }
+
+    private void adjust(Collection<Long> tagIds, long delta) {
+        Map<Long, Long> deltas = new HashMap<>();
+        tagIds.forEach(tagId -> deltas.merge(tagId, delta, Long::sum));
+        adjust(deltas);
+    }
+
+    private synchronized void apply(Map<Long, Long> deltas) {
+        deltas.forEach((tagId, delta) -> {
+            long count = Math.max(0, counts.getOrDefault(tagId, 0L) + delta);
+            if (count == 0) {
+                counts.remove(tagId);
+            } else {
+                counts.put(tagId, count);
+            }
+        });
+        generation++;
+        ranking = null;
+    }
+
+    private synchronized List<RankedTag> rank() {
+        if (ranking == null) {
+            List<RankedTag> ranked = new ArrayList<>(counts.size());
+            counts.forEach((tagId, count) -> ranked.add(new RankedTag(tagId, count)));
+            ranked.sort(Comparator.comparingLong(RankedTag::postCount).reversed()
+                    .thenComparingLong(RankedTag::tagId));
+            ranking = List.copyOf(ranked);
+        }
+        return ranking;
+    }
+}
@@ -0,0 +1,230 @@
+package com.practical.myblog.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.practical.myblog.util.Transactions.afterCommit;
+
+/**
+ * Post ids of each tag as compressed bitmaps, so AND/OR/NOT queries over several tags run in memory
+ * instead of joining post_tag once per tag.
+ * Published bitmaps are never modified and only read by queries: a change copies the bitmaps of the tags it touches
+ * and swaps in a new map, so readers combine them without locking. Cardinalities are computed before a bitmap
+ * is published, concurrent readers never fill the bitmap's lazy caches.
+ * Changes are applied after the transaction that made them commits.
+ * The scheduled rebuild replaces everything with the relations in the database, which picks up
+ * changes of other instances and deltas that raced with a previous rebuild. It reads post_tag without the lock,
+ * if a change was applied meanwhile the result is dropped and the scan runs again.
+ */
+@Slf4j
+@Service
+public class TagPostingLists implements InitializingBean {
+
+    private record PostingList(Roaring64NavigableMap postIds, long cardinality) {
+
+        static PostingList of(Roaring64NavigableMap postIds) {
+            return new PostingList(postIds, postIds.getLongCardinality());
+        }
+    }
+
+    private static final String SELECT_RELATIONS = "SELECT tag_id, post_id FROM post_tag";
+    private static final int FETCH_SIZE = 1000;
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Map<Long, PostingList> postingLists = Map.of();
+    // Guarded by this, moved by every swap of the posting lists
+    private long generation;
+
+    public TagPostingLists(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        rebuild();
+    }
+
+    /**
+     * Posts that have all tags of {@code all}, at least one tag of {@code any} and none of {@code none}.
+     * An empty {@code all} or {@code any} doesn't restrict the result, but one of them must be given.
+     * @return New bitmap of the matching post ids, owned by the caller
+     */
+    public Roaring64NavigableMap match(Collection<Long> all, Collection<Long> any, Collection<Long> none) {
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new IllegalArgumentException("Either all or any tags must be given");
+        }
+        Map<Long, PostingList> snapshot = postingLists;
+        Roaring64NavigableMap result = null;
+
+        // The smallest list first keeps every intermediate result as small as possible
+        List<PostingList> required = new ArrayList<>(all.size());
+        for (Long tagId : all) {
+            PostingList postingList = snapshot.get(tagId);
+            if (postingList == null) {
+                // A tag without posts empties the intersection
+                return new Roaring64NavigableMap();
+            }
+            required.add(postingList);
+        }
+        required.sort(Comparator.comparingLong(PostingList::cardinality));
+        for (PostingList postingList : required) {
+            if (result == null) {
+                result = copyOf(postingList.postIds());
+            } else {
+                result.and(postingList.postIds());
+            }
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+
+        if (!any.isEmpty()) {
+            Roaring64NavigableMap union = new Roaring64NavigableMap();
+            for (Long tagId : any) {
+                PostingList postingList = snapshot.get(tagId);
+                if (postingList != null) {
+                    union.or(postingList.postIds());
+                }
+            }
+            if (result == null) {
+                result = union;
+            } else {
+                result.and(union);
+            }
+        }
+
+        for (Long tagId : none) {
+            if (result.isEmpty()) {
+                break;
+            }
+            PostingList postingList = snapshot.get(tagId);
+            if (postingList != null) {
+                result.andNot(postingList.postIds());
+            }
+        }
+        return result;
+    }
+
+    public void add(Collection<Long> tagIds, Collection<Long> postIds) {
+        change(tagIds, postIds, true);
+    }
+
+    public void remove(Collection<Long> tagIds, Collection<Long> postIds) {
+        change(tagIds, postIds, false);
+    }
+
+    public void removeTags(Collection<Long> tagIds) {
+        List<Long> removed = List.copyOf(tagIds);
+        afterCommit(() -> update(postingLists -> removed.forEach(postingLists::remove)));
+    }
+
+    @Scheduled(fixedDelayString = "${application.tags.posting-lists.rebuild-interval}",
+            initialDelayString = "${application.tags.posting-lists.rebuild-interval}")
+    public void rebuild() {
+        for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+            long generationBefore;
+            synchronized (this) {
+                generationBefore = generation;
+            }
+            if (swapIfUnchanged(load(), generationBefore)) {
+                return;
+            }
+        }
+        log.debug("Posting lists kept changing during the rebuild, trying again with the next one");
+    }
+
+    private Map<Long, PostingList> load() {
+        long started = System.nanoTime();
+        Map<Long, Roaring64NavigableMap> built = new HashMap<>();
+        // Rows are fetched from the driver in chunks and handled one by one, the relations are never held in a list.
+        // PostgreSQL only honors the fetch size inside a transaction, MySQL also needs useCursorFetch=true in the URL.
+        PreparedStatementCreator select = connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_RELATIONS);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        };
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(select, (RowCallbackHandler) rs ->
+                built.computeIfAbsent(rs.getLong(1), tagId -> new Roaring64NavigableMap()).addLong(rs.getLong(2))));
+
+        Map<Long, PostingList> rebuilt = new HashMap<>();
+        built.forEach((tagId, postIds) -> {
+            postIds.runOptimize();
+            rebuilt.put(tagId, PostingList.of(postIds));
+        });
+        log.debug("Posting lists of {} tags built in {} ms", built.size(), (System.nanoTime() - started) / 1_000_000);
+        return Map.copyOf(rebuilt);
+    }
+
+    /**
+     * @return False if a change was applied since the scan started, replacing the posting lists could drop it
+     */
+    private synchronized boolean swapIfUnchanged(Map<Long, PostingList> rebuilt, long generationBefore) {
+        if (generation != generationBefore) {
+            return false;
+        }
+        postingLists = rebuilt;
+        generation++;
+        return true;
+    }
+
+    private void change(Collection<Long> tagIds, Collection<Long> postIds, boolean add) {
+        if (tagIds.isEmpty() || postIds.isEmpty()) {
+            return;
+        }
+        List<Long> changedTags = List.copyOf(tagIds);
+        List<Long> changedPosts = List.copyOf(postIds);
+        afterCommit(() -> update(postingLists -> {
+            for (Long tagId : changedTags) {
+                PostingList current = postingLists.get(tagId);
+                Roaring64NavigableMap postIdsOfTag = current == null ? new Roaring64NavigableMap() : copyOf(current.postIds());
+                for (Long postId : changedPosts) {
+                    if (add) {
+                        postIdsOfTag.addLong(postId);
+                    } else {
+                        postIdsOfTag.removeLong(postId);
+                    }
+                }
+                if (postIdsOfTag.isEmpty()) {
+                    postingLists.remove(tagId);
+                } else {
+                    postingLists.put(tagId, PostingList.of(postIdsOfTag));
+                }
+            }
+        }));
+    }
+
+    private synchronized void update(Consumer<Map<Long, PostingList>> change) {
+        Map<Long, PostingList> changed = new HashMap<>(postingLists);
+        change.accept(changed);
+        postingLists = Map.copyOf(changed);
+        generation++;
+    }
+
+    // Roaring64NavigableMap.or clones the buckets of its argument, the copy shares nothing with the published bitmap
+    private static Roaring64NavigableMap copyOf(Roaring64NavigableMap postIds) {
+        Roaring64NavigableMap copy = new Roaring64NavigableMap();
+        copy.or(postIds);
+        return copy;
+    }
+}
@@ -12,7 +12,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,21 +24,25 @@ import java.util.stream.Collectors;
 public class TagServiceImpl implements TagService{
 
     private final TagRepository tagRepository;
+    private final PostResponseCache postResponseCache;
+    private final TagDictionary tagDictionary;
+    private final TagPostCounts tagPostCounts;
+    private final TagPostingLists tagPostingLists;
 
     @Override
     public Page<TagResponseDTO> getAllTags(int pageNo, int pageSize) {
-        log.info("Retrieving all tags with pagination - Page: {}, Size: {}", pageNo, pageSize);
+        log.debug("Retrieving all tags with pagination - Page: {}, Size: {}", pageNo, pageSize);
         Pageable pageable = PageRequest.of(pageNo, pageSize);
 
         return tagRepository.findAll(pageable)
-                .map(tag -> new TagResponseDTO(tag.getId(), tag.getName()));
+                .map(this::toResponse);
     }
 
     @Override
     public TagResponseDTO getTag(Long id) {
-        log.info("Fetching tag with id: {}", id);
+        log.debug("Fetching tag with id: {}", id);
         return tagRepository.findById(id)
-                .map(tag -> new TagResponseDTO(tag.getId(), tag.getName()))
+                .map(this::toResponse)
                 .orElseThrow(() -> new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_ID + id));
     }
 
@@ -49,12 +55,14 @@ public class TagServiceImpl implements TagService{
                     tag.setName(tagName);
                     validateTag(tag);
                     Tag savedTag = tagRepository.save(tag);
-                    return new TagResponseDTO(savedTag.getId(), savedTag.getName());
+                    tagDictionary.put(savedTag.getId(), savedTag.getName());
+                    return toResponse(savedTag);
                 })
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public TagResponseDTO updateTagName(Long id, TagRequestDTO tagRequestDTO) {
         log.info("Updating tag with id: {}", id);
 
@@ -63,7 +71,7 @@ public class TagServiceImpl implements TagService{
             throw new TagValidationException(ErrorMessages.ONE_TAG_TO_UPDATE);
         }
 
-        if (tagRepository.findByName(tagRequestDTO.getTags().get(0)).isPresent()) {
+        if (tagDictionary.contains(tagRequestDTO.getTags().get(0))) {
             log.error("Tag name is not unique: {}", tagRequestDTO.getTags().get(0));
             throw new TagValidationException(ErrorMessages.TAG_NOT_UNIQUE);
         }
@@ -74,30 +82,44 @@ public class TagServiceImpl implements TagService{
                     return tagRepository.save(existingTag);
                 })
                 .orElseThrow(() -> new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_ID + id));
+        tagDictionary.put(updatedTag.getId(), updatedTag.getName());
+        // Cached posts embed tag names
+        tagRepository.touchPostsOfTag(id, Instant.now());
+        postResponseCache.invalidateAll();
 
-        return new TagResponseDTO(updatedTag.getId(), updatedTag.getName());
+        return toResponse(updatedTag);
     }
 
     @Override
+    @Transactional
     public void deleteTag(Long id) {
         log.info("Deleting tag with id: {}", id);
-        if (tagRepository.existsById(id)) {
-            tagRepository.deleteById(id);
-            log.info("Tag with id: {} has been deleted.", id);
-        } else {
+        // Set-based statements, the relations go first so the tag row is no longer referenced
+        tagRepository.touchPostsOfTag(id, Instant.now());
+        tagRepository.deletePostLinksOfTags(List.of(id));
+        if (tagRepository.deleteByIds(List.of(id)) == 0) {
             log.error("Tag not found for deletion with id: {}", id);
             throw new TagValidationException(ErrorMessages.TAG_NOT_FOUND_WITH_ID + id);
         }
+        tagDictionary.removeAll(List.of(id));
+        tagPostCounts.removeAll(List.of(id));
+        tagPostingLists.removeTags(List.of(id));
+        postResponseCache.invalidateAll();
+        log.info("Tag with id: {} has been deleted.", id);
+    }
+
+    private TagResponseDTO toResponse(Tag tag) {
+        return new TagResponseDTO(tag.getId(), tag.getName(), tag.getVersion(), tag.getUpdatedAt());
     }
 
     private void validateTag(Tag tag) {
-        log.info("Validating tag: {}", tag.getName());
+        log.debug("Validating tag: {}", tag.getName());
         if (tag.getName() == null || tag.getName().trim().isEmpty()) {
             log.error("Tag name cannot be empty.");
             throw new TagValidationException(ErrorMessages.TAG_NAME_CANNOT_BE_EMPTY);
         }
 
-        if (tagRepository.findByName(tag.getName()).isPresent()) {
+        if (tagDictionary.contains(tag.getName())) {
             log.error("Tag name is not unique on validateTag: {}", tag.getName());
             throw new TagValidationException(ErrorMessages.TAG_NOT_UNIQUE);
         }
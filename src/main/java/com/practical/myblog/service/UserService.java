@@ -2,6 +2,7 @@ package com.practical.myblog.service;
 
 import com.practical.myblog.dto.AuthenticationRequestDTO;
 import com.practical.myblog.dto.AuthenticationResponseDTO;
+import com.practical.myblog.dto.RefreshTokenRequestDTO;
 import com.practical.myblog.dto.UserRequestDTO;
 import com.practical.myblog.dto.UserResponseDTO;
 import org.springframework.data.domain.Page;
@@ -32,9 +33,10 @@ public interface UserService {
     /**
      * Logs in user
      * @param request
+     * @param clientAddress Address of the client, used for login throttling
      * @return AuthenticationResponse
      */
-    AuthenticationResponseDTO authenticateUser(AuthenticationRequestDTO request);
+    AuthenticationResponseDTO authenticateUser(AuthenticationRequestDTO request, String clientAddress);
 
     /**
      * Adds a new user
@@ -42,4 +44,12 @@ public interface UserService {
      * @return AuthenticationResponse
      */
     AuthenticationResponseDTO registerUser(UserRequestDTO request);
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     * The used refresh token is revoked, using it again revokes all tokens of the user.
+     * @param request
+     * @return AuthenticationResponse
+     */
+    AuthenticationResponseDTO refreshToken(RefreshTokenRequestDTO request);
 }
@@ -8,11 +8,17 @@ import com.practical.myblog.model.TokenType;
 import com.practical.myblog.model.User;
 import com.practical.myblog.repository.TokenRepository;
 import com.practical.myblog.repository.UserRepository;
+import com.practical.myblog.security.CachedUserDetailsService;
 import com.practical.myblog.security.JwtService;
+import com.practical.myblog.security.LoginRateLimiter;
+import com.practical.myblog.security.TokenDigest;
+import com.practical.myblog.security.TokenValidityCache;
 import com.practical.myblog.util.ErrorMessages;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +28,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -29,24 +37,28 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final TokenRepository tokenRepository;
-    private final ModelMapper modelMapper;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenValidityCache tokenValidityCache;
+    private final CachedUserDetailsService userDetailsService;
+    private final LoginRateLimiter loginRateLimiter;
+
+    // In stateless mode only refresh tokens are stored, access tokens are verified in memory
+    @Value("${application.security.jwt.stateless}")
+    private boolean stateless;
 
     @Override
     public Page<UserResponseDTO> getAllUsers(int pageNo, int pageSize) {
-        log.info("Retrieving all users with pagination - Page: {}, Size: {}", pageNo, pageSize);
+        log.debug("Retrieving all users with pagination - Page: {}, Size: {}", pageNo, pageSize);
         Pageable pageable = PageRequest.of(pageNo, pageSize);
-        return userRepository.findAll(pageable)
-                .map(user -> modelMapper.map(user, UserResponseDTO.class));
+        return userRepository.findAllUserResponses(pageable);
     }
 
     @Override
     public UserResponseDTO getUser(Long id) {
-        log.info("Fetching user with ID: {}", id);
-        return userRepository.findById(id)
-                .map(user -> modelMapper.map(user, UserResponseDTO.class))
+        log.debug("Fetching user with ID: {}", id);
+        return userRepository.findUserResponseById(id)
                 .orElseThrow(() -> new UserValidationException(ErrorMessages.USER_NOT_FOUND_WITH_ID + id));
     }
 
@@ -54,18 +66,21 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(Long id) {
         log.info("Attempting to delete user with ID: {}", id);
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-            log.info("User with ID: {} deleted successfully", id);
-        } else {
-            log.error("User not found with ID: {}", id);
-            throw new UserValidationException(ErrorMessages.USER_NOT_FOUND_WITH_ID + id);
-        }
+        var user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("User not found with ID: {}", id);
+                    return new UserValidationException(ErrorMessages.USER_NOT_FOUND_WITH_ID + id);
+                });
+        userRepository.delete(user);
+        userDetailsService.evict(user.getUsername());
+        log.info("User with ID: {} deleted successfully", id);
     }
 
     @Override
-    public AuthenticationResponseDTO authenticateUser(AuthenticationRequestDTO request) {
+    public AuthenticationResponseDTO authenticateUser(AuthenticationRequestDTO request, String clientAddress) {
         log.info("User: {} is attempting to log in", request.getUsername());
+        // Rejected before the password check, which is the expensive part of a login
+        loginRateLimiter.checkLogin(request.getUsername(), clientAddress);
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
@@ -76,22 +91,15 @@ public class UserServiceImpl implements UserService {
         var user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new UserValidationException(ErrorMessages.USER_NOT_FOUND_WITH_USERNAME + request.getUsername()));
 
-        var jwtToken = jwtService.generateToken(user);
-        log.info("Generated JWT token for user: {}", user.getUsername());
-
         revokeAllUserTokens(user);
-        saveUserToken(user, jwtToken);
-
-        return AuthenticationResponseDTO.builder()
-                .token(jwtToken)
-                .build();
+        return issueTokens(user, UUID.randomUUID().toString());
     }
 
     @Override
     public AuthenticationResponseDTO registerUser(UserRequestDTO request) {
         log.info("User: {} is attempting to register", request.getUsername());
 
-        String jwtToken = "";
+        AuthenticationResponseDTO response;
 
         try {
             var user = User.builder()
@@ -101,46 +109,91 @@ public class UserServiceImpl implements UserService {
                     .role(Role.USER)
                     .build();
             var savedUser = userRepository.save(user);
-            jwtToken = jwtService.generateToken(user);
             log.info("User registered successfully: {}", savedUser.getUsername());
-            saveUserToken(savedUser, jwtToken);
+            response = issueTokens(savedUser, UUID.randomUUID().toString());
         } catch (DataIntegrityViolationException e) {
             log.error("Username not unique: {}", request.getUsername());
             throw new UserValidationException(ErrorMessages.USERNAME_NOT_UNIQUE);
         }
 
+        return response;
+    }
+
+    @Override
+    public AuthenticationResponseDTO refreshToken(RefreshTokenRequestDTO request) {
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(request.getRefreshToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Refresh token could not be verified: {}", e.getMessage());
+            throw new UserValidationException(ErrorMessages.INVALID_REFRESH_TOKEN);
+        }
+        if (!jwtService.isRefreshToken(claims)) {
+            throw new UserValidationException(ErrorMessages.INVALID_REFRESH_TOKEN);
+        }
+        log.info("User: {} is refreshing tokens", claims.getSubject());
+
+        var tokenDigest = TokenDigest.of(request.getRefreshToken());
+        var storedToken = tokenRepository.findByTokenHash(tokenDigest.getValue())
+                .filter(token -> token.getTokenType() == TokenType.REFRESH)
+                .orElseThrow(() -> new UserValidationException(ErrorMessages.INVALID_REFRESH_TOKEN));
+        var user = userRepository.findByUsername(claims.getSubject())
+                .orElseThrow(() -> new UserValidationException(ErrorMessages.INVALID_REFRESH_TOKEN));
+
+        // Rotation: the conditional update only succeeds once per refresh token
+        if (tokenRepository.revokeToken(storedToken.getId()) == 0) {
+            log.warn("Revoked refresh token reused for user: {}, revoking all tokens", user.getUsername());
+            revokeAllUserTokens(user);
+            throw new UserValidationException(ErrorMessages.INVALID_REFRESH_TOKEN);
+        }
+        tokenValidityCache.revoke(tokenDigest);
+
+        // The new tokens stay in the session of the refresh token, refresh tokens issued before sessions start one
+        var sessionId = jwtService.extractSessionId(claims);
+        return issueTokens(user, sessionId != null ? sessionId : UUID.randomUUID().toString());
+    }
+
+    private AuthenticationResponseDTO issueTokens(User user, String sessionId) {
+        var jwtToken = jwtService.generateToken(user, sessionId);
+        var refreshToken = jwtService.generateRefreshToken(user, sessionId);
+        log.debug("Generated JWT tokens for user: {}", user.getUsername());
+
+        if (!stateless) {
+            saveUserToken(user, jwtToken, TokenType.BEARER, sessionId);
+        }
+        saveUserToken(user, refreshToken, TokenType.REFRESH, sessionId);
+
         return AuthenticationResponseDTO.builder()
                 .token(jwtToken)
+                .refreshToken(refreshToken)
                 .build();
     }
 
-
-    private void saveUserToken(User user, String jwtToken) {
-        log.info("Saving token for user: {}", user.getUsername());
+    private void saveUserToken(User user, String jwtToken, TokenType tokenType, String sessionId) {
+        log.debug("Saving {} token for user: {}", tokenType, user.getUsername());
         var token = Token.builder()
                 .user(user)
-                .token(jwtToken)
-                .tokenType(TokenType.BEARER)
+                .tokenHash(TokenDigest.of(jwtToken).getValue())
+                .tokenType(tokenType)
                 .expired(false)
                 .revoked(false)
+                .expiresAt(jwtService.extractAllClaims(jwtToken).getExpiration().toInstant())
+                .sessionId(sessionId)
                 .build();
         tokenRepository.save(token);
     }
 
     private void revokeAllUserTokens(User user) {
         log.info("Revoking all tokens for user: {}", user.getUsername());
-        var validUserTokens = tokenRepository.findAllValidTokenByUser(user.getId());
+        // Only the token digests are read, they are needed to invalidate the token validity cache
+        var validUserTokens = tokenRepository.findAllValidTokenHashesByUser(user.getId());
         if (validUserTokens.isEmpty()) {
-            log.info("No valid tokens found for user: {}", user.getUsername());
+            log.debug("No valid tokens found for user: {}", user.getUsername());
             return;
         }
-        validUserTokens.forEach(token -> {
-            token.setExpired(true);
-            token.setRevoked(true);
-            log.info("Revoked token: {}", token.getToken());
-        });
-        tokenRepository.saveAll(validUserTokens);
-        log.info("All valid tokens revoked for user: {}", user.getUsername());
+        int revokedTokens = tokenRepository.revokeAllValidTokensByUser(user.getId());
+        validUserTokens.forEach(tokenHash -> tokenValidityCache.revoke(TokenDigest.ofHash(tokenHash)));
+        log.info("{} valid tokens revoked for user: {}", revokedTokens, user.getUsername());
     }
 
 }
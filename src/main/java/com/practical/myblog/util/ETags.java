@@ -0,0 +1,102 @@
+package com.practical.myblog.util;
+
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.dto.PostVersion;
+import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.exception.PostConflictException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validators for conditional GETs. Single posts and tags get strong ETags from their version column,
+ * which changes with every write. Pages get weak ETags from the ids and versions of their rows
+ * and the page metadata, so adding, removing or changing any row of the page changes the tag.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String ofPost(PostResponseDTO post, boolean includeTags) {
+        // The two representations differ, so they can't share a strong ETag
+        return "\"post-" + post.getId() + "-" + post.getVersion() + (includeTags ? "-tags" : "") + "\"";
+    }
+
+    /**
+     * Reads the version a client expects from an If-Match header, for optimistic locking of post updates
+     * @param ifMatch Header value, null when the header is missing
+     * @return Version of the post, null for a missing header or "*"
+     * @throws PostConflictException if the ETag can't match this post, e.g. a weak or another post's ETag
+     */
+    public static Long postVersion(String ifMatch, Long postId) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"post-" + postId + "-";
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith(prefix) && eTag.endsWith("\"")) {
+            String version = eTag.substring(prefix.length(), eTag.length() - 1);
+            if (version.endsWith("-tags")) {
+                version = version.substring(0, version.length() - "-tags".length());
+            }
+            try {
+                return Long.parseLong(version);
+            } catch (NumberFormatException e) {
+                // Falls through to the conflict below
+            }
+        }
+        throw new PostConflictException(ErrorMessages.POST_VERSION_CONFLICT + postId);
+    }
+
+    public static String ofTag(TagResponseDTO tag) {
+        return "\"tag-" + tag.getId() + "-" + tag.getVersion() + "\"";
+    }
+
+    /**
+     * @param fields Requested fields, null for full posts
+     * @param pageInfo Everything else in the body that can change on its own, e.g. the total count or the next cursor
+     */
+    public static String ofPostPage(List<? extends PostVersion> posts, boolean includeTags, Set<PostField> fields, Object pageInfo) {
+        String representation = (fields == null ? "" : fields.stream().map(PostField::getProperty).collect(Collectors.joining(",")))
+                + (includeTags ? "+tags" : "");
+        return weak("posts", Stream.concat(Stream.of(representation),
+                posts.stream().map(post -> post.getId() + ":" + post.getVersion())), pageInfo);
+    }
+
+    public static String ofTagPage(List<TagResponseDTO> tags, Object pageInfo) {
+        return weak("tags", tags.stream().map(tag -> tag.getId() + ":" + tag.getVersion()), pageInfo);
+    }
+
+    /**
+     * @return Epoch millis for Last-Modified, -1 when unknown (rows written before the column existed)
+     */
+    public static long lastModified(Instant updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+
+    private static String weak(String kind, Stream<String> rowVersions, Object pageInfo) {
+        MessageDigest digest = sha256();
+        rowVersions.forEach(row -> digest.update((row + ";").getBytes(StandardCharsets.UTF_8)));
+        digest.update(String.valueOf(pageInfo).getBytes(StandardCharsets.UTF_8));
+        // 128 bits are plenty to tell pages apart
+        return "W/\"" + kind + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -16,5 +16,16 @@ public class ErrorMessages {
     public static final String USERNAME_NOT_UNIQUE = "Username must be unique.";
     public static final String USER_NOT_FOUND_WITH_USERNAME = "User not found with username: ";
     public static final String POST_NOT_FOUND_FOR_KEYWORD = "No posts found containing the keyword: ";
+    public static final String POST_VERSION_CONFLICT = "Post was changed by another request, reload it and retry. Post id: ";
+    public static final String BULK_DELETE_NEEDS_ONE_FILTER = "Either ids or tagName must be given.";
+    public static final String TAG_QUERY_NEEDS_ALL_OR_ANY = "Either all or any tags must be given.";
+    public static final String UNKNOWN_POST_FIELD = "Unknown post field: ";
+    public static final String INVALID_CURSOR = "Cursor is invalid.";
+    public static final String INVALID_IMPORT_RECORD = "Invalid JSON: ";
+    public static final String IMPORT_RECORD_NOT_OBJECT = "Record must be a JSON object.";
+    public static final String IMPORT_RECORD_FAILED = "Insert failed, see server logs.";
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "Too many login attempts, try again later.";
+    public static final String INVALID_REFRESH_TOKEN = "Refresh token is invalid or expired.";
+    public static final String PASSWORD_HASHING_BUSY = "Server is busy, try again later.";
 }
 
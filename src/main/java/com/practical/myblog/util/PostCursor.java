@@ -0,0 +1,44 @@
+package com.practical.myblog.util;
+
+import com.practical.myblog.exception.PostValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor used by keyset pagination. It holds the id of the last post of a page,
+ * the next page starts after that id, so no rows are skipped with OFFSET and no count query is needed.
+ */
+public final class PostCursor {
+
+    private static final String PREFIX = "id:";
+
+    private PostCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Cursor returned with the previous page, null or blank for the first page
+     * @return Id the next page starts after
+     * @throws PostValidationException if the cursor was not issued by {@link #encode(Long)}
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new PostValidationException(ErrorMessages.INVALID_CURSOR);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
+            throw new PostValidationException(ErrorMessages.INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.practical.myblog;
+
+import com.practical.myblog.dto.BulkDeleteResponseDTO;
+import com.practical.myblog.dto.BulkPostDeleteRequestDTO;
+import com.practical.myblog.dto.BulkTagDeleteRequestDTO;
+import com.practical.myblog.exception.PostValidationException;
+import com.practical.myblog.repository.PostRepository;
+import com.practical.myblog.repository.PostStatsRepository;
+import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.service.BulkDeleteServiceImpl;
+import com.practical.myblog.service.PostResponseCache;
+import com.practical.myblog.service.PostViewCounter;
+import com.practical.myblog.service.TagDictionary;
+import com.practical.myblog.service.TagPostCounts;
+import com.practical.myblog.service.TagPostingLists;
+import com.practical.myblog.util.ErrorMessages;
+import jakarta.persistence.EntityManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkDeleteServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private PostStatsRepository postStatsRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private PostResponseCache postResponseCache;
+    @Mock
+    private TagDictionary tagDictionary;
+    @Mock
+    private TagPostCounts tagPostCounts;
+    @Mock
+    private TagPostingLists tagPostingLists;
+    @Mock
+    private PostViewCounter postViewCounter;
+
+    private BulkDeleteServiceImpl bulkDeleteService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkDeleteService = new BulkDeleteServiceImpl(
+                postRepository,
+                tagRepository,
+                postStatsRepository,
+                entityManager,
+                transactionManager,
+                postResponseCache,
+                tagDictionary,
+                tagPostCounts,
+                tagPostingLists,
+                postViewCounter,
+                2
+        );
+    }
+
+    @Test
+    @DisplayName("Should delete posts by id in chunks, relations first")
+    void deletePosts_ByIdsInChunks() {
+        when(postRepository.deleteByIds(List.of(1L, 2L))).thenReturn(2);
+        when(postRepository.deleteByIds(List.of(3L))).thenReturn(1);
+
+        BulkDeleteResponseDTO result;
+        try (MockedStatic<Search> search = mockStatic(Search.class, Answers.RETURNS_DEEP_STUBS)) {
+            // Duplicate ids are deleted once
+            result = bulkDeleteService.deletePosts(new BulkPostDeleteRequestDTO(List.of(1L, 2L, 2L, 3L), null));
+
+            // One indexing plan per chunk purges the documents
+            search.verify(() -> Search.session(entityManager), times(2));
+        }
+
+        assertEquals(3, result.getDeleted());
+        verify(postRepository).deleteTagLinksOfPosts(List.of(1L, 2L));
+        verify(postRepository).deleteTagLinksOfPosts(List.of(3L));
+        verify(postResponseCache).invalidateAll(List.of(1L, 2L));
+        verify(postResponseCache).invalidateAll(List.of(3L));
+    }
+
+    @Test
+    @DisplayName("Should delete the posts of a tag until none are left")
+    void deletePosts_ByTagName() {
+        when(tagDictionary.contains("java")).thenReturn(true);
+        when(postRepository.findIdsByTagName("java", PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(postRepository.deleteByIds(anyCollection())).thenReturn(2, 1);
+
+        BulkDeleteResponseDTO result;
+        try (MockedStatic<Search> search = mockStatic(Search.class, Answers.RETURNS_DEEP_STUBS)) {
+            result = bulkDeleteService.deletePosts(new BulkPostDeleteRequestDTO(null, "java"));
+        }
+
+        assertEquals(3, result.getDeleted());
+        verify(postRepository, times(3)).findIdsByTagName("java", PageRequest.of(0, 2));
+    }
+
+    @Test
+    @DisplayName("Should throw PostValidationException when both ids and a tag name are given")
+    void deletePosts_BothFilters() {
+        PostValidationException exception = assertThrows(PostValidationException.class,
+                () -> bulkDeleteService.deletePosts(new BulkPostDeleteRequestDTO(List.of(1L), "java")));
+
+        assertEquals(ErrorMessages.BULK_DELETE_NEEDS_ONE_FILTER, exception.getMessage());
+        verify(postRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    @DisplayName("Should detach tags from their posts in chunks before deleting them")
+    void deleteTags_DetachesInChunks() {
+        Set<Long> tagIds = Set.of(7L);
+        when(tagRepository.findPostIdsByTagIds(tagIds, PageRequest.of(0, 2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(tagRepository.deleteByIds(tagIds)).thenReturn(1);
+
+        BulkDeleteResponseDTO result = bulkDeleteService.deleteTags(new BulkTagDeleteRequestDTO(List.of(7L)));
+
+        assertEquals(1, result.getDeleted());
+        verify(postRepository).detachTags(List.of(1L, 2L), tagIds);
+        verify(postRepository).detachTags(List.of(3L), tagIds);
+        verify(postRepository, times(2)).touchPosts(any(), any());
+        verify(tagRepository).deletePostLinksOfTags(tagIds);
+        verify(tagDictionary).removeAll(tagIds);
+        verify(tagPostCounts).removeAll(tagIds);
+        verify(tagPostingLists).removeTags(tagIds);
+    }
+}
@@ -0,0 +1,57 @@
+package com.practical.myblog;
+
+import com.practical.myblog.model.Post;
+import com.practical.myblog.util.CompressedTextConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    @DisplayName("Should store short text as plain UTF-8")
+    void convert_ShortTextIsNotCompressed() {
+        String text = "Short post with ümlauts";
+
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertEquals(0, stored[0]);
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length + 1, stored.length);
+        assertEquals(text, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    @DisplayName("Should compress long text and read it back unchanged")
+    void convert_LongTextIsCompressed() {
+        String text = "A long-form article paragraph that repeats itself. ".repeat(400);
+
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertEquals(1, stored[0]);
+        assertTrue(stored.length < text.length() / 4);
+        assertEquals(text, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    @DisplayName("Should keep null as null")
+    void convert_Null() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    @DisplayName("Should cut the excerpt of a long text without splitting a surrogate pair")
+    void excerptOf_LongText() {
+        String text = "x".repeat(Post.EXCERPT_LENGTH - 1) + "😀" + "rest of the text";
+
+        String excerpt = Post.excerptOf(text);
+
+        assertEquals("x".repeat(Post.EXCERPT_LENGTH - 1) + "…", excerpt);
+        assertEquals("Short text", Post.excerptOf("Short text"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.practical.myblog;
+
+import com.practical.myblog.exception.LoginThrottledException;
+import com.practical.myblog.security.LoginRateLimiter;
+import com.practical.myblog.util.ErrorMessages;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 3 attempts per user and 5 per address every minute
+        loginRateLimiter = new LoginRateLimiter(meterRegistry, 3, 5, Duration.ofMinutes(1), 100, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst up to the capacity and then throttle the username")
+    void checkLogin_ThrottlesUsernameAfterBurst() {
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> loginRateLimiter.checkLogin("user", "10.0.0.1"));
+        }
+
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginRateLimiter.checkLogin("user", "10.0.0.1"));
+
+        assertEquals(ErrorMessages.TOO_MANY_LOGIN_ATTEMPTS, exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("login.throttled").tag("key", "username").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should allow a new attempt once a permit has been refilled")
+    void checkLogin_RefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.checkLogin("user", "10.0.0.1");
+        }
+        assertThrows(LoginThrottledException.class, () -> loginRateLimiter.checkLogin("user", "10.0.0.1"));
+
+        // One permit is refilled every 20 seconds
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        assertDoesNotThrow(() -> loginRateLimiter.checkLogin("user", "10.0.0.1"));
+        assertThrows(LoginThrottledException.class, () -> loginRateLimiter.checkLogin("user", "10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("Should throttle a client address trying many usernames")
+    void checkLogin_ThrottlesAddress() {
+        for (int i = 0; i < 5; i++) {
+            String username = "user" + i;
+            assertDoesNotThrow(() -> loginRateLimiter.checkLogin(username, "10.0.0.2"));
+        }
+
+        assertThrows(LoginThrottledException.class, () -> loginRateLimiter.checkLogin("another", "10.0.0.2"));
+        assertDoesNotThrow(() -> loginRateLimiter.checkLogin("another", "10.0.0.3"));
+        assertEquals(1.0, meterRegistry.get("login.throttled").tag("key", "address").counter().count());
+    }
+}
@@ -0,0 +1,63 @@
+package com.practical.myblog;
+
+import com.practical.myblog.dto.AuthenticationRequestDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs on a real port, X-Forwarded-For is resolved by Tomcat and not by the MockMvc request
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "application.security.login-throttle.address-capacity=2")
+public class LoginThrottleIntegrationTest {
+
+    @Container
+    static MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0.33")
+            .withDatabaseName("testdb")
+            .withUsername("user")
+            .withPassword("password");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    // Dynamically register the MySQL properties for the Spring Boot context
+    @DynamicPropertySource
+    static void registerMySQLProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mySQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", mySQLContainer::getUsername);
+        registry.add("spring.datasource.password", mySQLContainer::getPassword);
+    }
+
+    @Test
+    @DisplayName("Should throttle logins per forwarded client address and not per proxy")
+    void login_ForwardedClientsHaveSeparateBuckets() {
+        // Different usernames, so only the address bucket fills up
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("first", "203.0.113.1"));
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("second", "203.0.113.1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("third", "203.0.113.1"));
+
+        // Same proxy, another client
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("fourth", "198.51.100.7"));
+    }
+
+    private HttpStatusCode login(String username, String clientAddress) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", clientAddress);
+        var request = new AuthenticationRequestDTO(username, "wrong-password");
+        return restTemplate.postForEntity("/users/login", new HttpEntity<>(request, headers), String.class)
+                .getStatusCode();
+    }
+}
@@ -0,0 +1,115 @@
+package com.practical.myblog;
+
+import com.practical.myblog.model.Role;
+import com.practical.myblog.model.Token;
+import com.practical.myblog.model.User;
+import com.practical.myblog.repository.TokenRepository;
+import com.practical.myblog.security.JwtService;
+import com.practical.myblog.security.LogoutService;
+import com.practical.myblog.security.TokenDigest;
+import com.practical.myblog.security.TokenValidityCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class LogoutServiceTest {
+
+    private static final String SECRET_KEY = "pTynyImk49q0mVe9XfEIatr1xve90tXcn6LewDLpuU/fdmXWbkiD7n9IUgPp/fQX";
+
+    @Mock
+    private TokenRepository tokenRepository;
+    @Mock
+    private TokenValidityCache tokenValidityCache;
+
+    private JwtService jwtService;
+    private LogoutService logoutService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jwtService = new JwtService(SECRET_KEY, 86400000, 1209600000, false, 900000);
+        logoutService = new LogoutService(tokenRepository, tokenValidityCache, jwtService);
+        user = User.builder()
+                .username("user")
+                .password("password")
+                .displayName("User")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should revoke the access and refresh tokens of the session after their rows are updated")
+    void logout_RevokesSession() {
+        String accessToken = jwtService.generateToken(user, "session-1");
+        String refreshToken = jwtService.generateRefreshToken(user, "session-1");
+        byte[] accessHash = TokenDigest.of(accessToken).getValue();
+        byte[] refreshHash = TokenDigest.of(refreshToken).getValue();
+        when(tokenRepository.findAllValidTokenHashesBySession("session-1")).thenReturn(List.of(accessHash, refreshHash));
+        when(tokenRepository.revokeAllValidTokensBySession("session-1")).thenReturn(2);
+
+        logoutService.logout(requestWith(accessToken), new MockHttpServletResponse(), null);
+
+        InOrder inOrder = inOrder(tokenRepository, tokenValidityCache);
+        inOrder.verify(tokenRepository).revokeAllValidTokensBySession("session-1");
+        inOrder.verify(tokenValidityCache, atLeastOnce()).revoke(TokenDigest.of(accessToken));
+        verify(tokenValidityCache).revoke(TokenDigest.of(refreshToken));
+        // Other sessions of the user stay valid
+        verify(tokenRepository, never()).revokeAllValidTokensByUser(any());
+    }
+
+    @Test
+    @DisplayName("Should end the session of an expired access token")
+    void logout_ExpiredAccessToken() {
+        JwtService expiringJwtService = new JwtService(SECRET_KEY, -1000, 1209600000, false, 900000);
+        String accessToken = expiringJwtService.generateToken(user, "session-1");
+
+        logoutService.logout(requestWith(accessToken), new MockHttpServletResponse(), null);
+
+        verify(tokenRepository).revokeAllValidTokensBySession("session-1");
+    }
+
+    @Test
+    @DisplayName("Should revoke only the stored row of a token issued before sessions")
+    void logout_TokenWithoutSession() {
+        String accessToken = jwtService.generateToken(user);
+        Token storedToken = Token.builder().id(1L).tokenHash(TokenDigest.of(accessToken).getValue()).build();
+        when(tokenRepository.findByTokenHash(any())).thenReturn(Optional.of(storedToken));
+
+        logoutService.logout(requestWith(accessToken), new MockHttpServletResponse(), null);
+
+        assertTrue(storedToken.isRevoked());
+        assertTrue(storedToken.isExpired());
+        InOrder inOrder = inOrder(tokenRepository, tokenValidityCache);
+        inOrder.verify(tokenRepository).save(storedToken);
+        inOrder.verify(tokenValidityCache).revoke(TokenDigest.of(accessToken));
+        verify(tokenRepository, never()).revokeAllValidTokensBySession(anyString());
+    }
+
+    @Test
+    @DisplayName("Should ignore a logout with a token that can't be verified")
+    void logout_InvalidToken() {
+        logoutService.logout(requestWith("not-a-jwt"), new MockHttpServletResponse(), null);
+
+        verifyNoInteractions(tokenRepository, tokenValidityCache);
+    }
+
+    private static MockHttpServletRequest requestWith(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
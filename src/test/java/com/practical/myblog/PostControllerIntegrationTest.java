@@ -1,18 +1,22 @@
 package com.practical.myblog;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practical.myblog.dto.BulkTagOperationRequestDTO;
 import com.practical.myblog.dto.PostRequestDTO;
+import com.practical.myblog.dto.TagOperation;
 import com.practical.myblog.dto.TagRequestDTO;
 import com.practical.myblog.model.Post;
 import com.practical.myblog.model.Tag;
 import com.practical.myblog.repository.PostRepository;
 import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.service.TagDictionary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -52,6 +56,8 @@ public class PostControllerIntegrationTest {
     private PostRepository postRepository;
     @Autowired
     private TagRepository tagRepository;
+    @Autowired
+    private TagDictionary tagDictionary;
 
     private Post post1;
     private Post post2;
@@ -88,6 +94,8 @@ public class PostControllerIntegrationTest {
         post2.setTitle("Post 2");
         post2.setTags(new HashSet<>(Set.of(tag2)));
         postRepository.save(post2);
+        // Tags saved through the repository bypass the dictionary
+        tagDictionary.reload();
     }
 
     @Test
@@ -111,6 +119,66 @@ public class PostControllerIntegrationTest {
                 .andExpect(jsonPath("$.id", is(postId.intValue())));
     }
 
+    @Test
+    @DisplayName("Should answer 304 when the post still matches the ETag")
+    void getPost_NotModified() throws Exception {
+        Long postId = post1.getId();
+
+        String eTag = mockMvc.perform(get("/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should reject an update based on an outdated ETag with 409")
+    void updatePost_StaleIfMatch() throws Exception {
+        String eTag = mockMvc.perform(get("/posts/{id}", post1.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        PostRequestDTO first = new PostRequestDTO();
+        first.setTitle("First");
+        mockMvc.perform(put("/posts/{id}", post1.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isOk());
+
+        PostRequestDTO second = new PostRequestDTO();
+        second.setTitle("Second");
+        mockMvc.perform(put("/posts/{id}", post1.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .content(objectMapper.writeValueAsString(second)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/posts/{id}", post1.getId()))
+                .andExpect(jsonPath("$.title", is("First")));
+    }
+
+    @Test
+    @DisplayName("Should change the ETag of a page when a post on it changes")
+    void getPosts_ETagChangesAfterUpdate() throws Exception {
+        String eTag = mockMvc.perform(get("/posts?pageNo=0&pageSize=10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/posts?pageNo=0&pageSize=10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        PostRequestDTO requestDTO = new PostRequestDTO();
+        requestDTO.setTitle("Changed");
+        mockMvc.perform(put("/posts/{id}", post1.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/posts?pageNo=0&pageSize=10").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title", is("Changed")));
+    }
+
     @Test
     @DisplayName("Should add a new post")
     void addPost_Success() throws Exception {
@@ -185,6 +253,16 @@ public class PostControllerIntegrationTest {
                 .andExpect(header().string("Post-ID", String.valueOf(post1.getId())));
     }
 
+    @Test
+    @DisplayName("Should reject a bulk tag operation without authentication")
+    void applyTagOperation_Unauthenticated() throws Exception {
+        var request = new BulkTagOperationRequestDTO(TagOperation.ATTACH, List.of(post1.getId(), post2.getId()), List.of("Tag 1"));
+
+        mockMvc.perform(post("/posts/tags/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @DisplayName("Should return all posts for a given tag")
     void getAllPostsForTag_Success() throws Exception {
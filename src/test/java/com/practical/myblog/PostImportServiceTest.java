@@ -0,0 +1,133 @@
+package com.practical.myblog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practical.myblog.dto.PostImportResultDTO;
+import com.practical.myblog.mapper.PostMapper;
+import com.practical.myblog.model.Post;
+import com.practical.myblog.service.PostImportServiceImpl;
+import com.practical.myblog.util.ErrorMessages;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.hibernate.search.mapper.orm.Search;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class PostImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PostImportServiceImpl postImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        postImportService = new PostImportServiceImpl(
+                entityManager,
+                transactionManager,
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                Mappers.getMapper(PostMapper.class),
+                2,
+                2
+        );
+    }
+
+    @Test
+    @DisplayName("Should report invalid records with their line numbers and skip them")
+    void importPosts_InvalidRecords() throws IOException {
+        String input = """
+                {"title": "  ", "text": "Text"}
+
+                not json
+                """;
+
+        PostImportResultDTO result = postImportService.importPosts(toStream(input));
+
+        assertEquals(0, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        assertEquals(ErrorMessages.POST_TITLE_CANNOT_BE_EMPTY, result.getErrors().get(0).getMessage());
+        assertEquals(3, result.getErrors().get(1).getLine());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith(ErrorMessages.INVALID_IMPORT_RECORD));
+        assertFalse(result.isErrorsTruncated());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    @DisplayName("Should apply the PostRequestDTO constraints and cap the reported errors")
+    void importPosts_ConstraintViolationsAreCapped() throws IOException {
+        String longTitle = "x".repeat(61);
+        String input = """
+                {"text": "No title"}
+                {"title": "%s"}
+                {"title": ""}
+                """.formatted(longTitle);
+
+        PostImportResultDTO result = postImportService.importPosts(toStream(input));
+
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("title: "));
+        assertEquals("title: Title length must be less than 60 characters", result.getErrors().get(1).getMessage());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    @DisplayName("Should report a null record as an error instead of failing the import")
+    void importPosts_NullRecord() throws IOException {
+        PostImportResultDTO result = postImportService.importPosts(toStream("null\n"));
+
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        assertEquals(ErrorMessages.IMPORT_RECORD_NOT_OBJECT, result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch record by record and report only the failing records")
+    void importPosts_FailedBatchIsRetriedPerRecord() throws IOException {
+        doThrow(new PersistenceException("Duplicate entry"))
+                .when(entityManager).persist(argThat(entity -> entity instanceof Post post && "Bad".equals(post.getTitle())));
+        String input = """
+                {"title": "Good 1"}
+                {"title": "Bad"}
+                {"title": "Good 2"}
+                """;
+
+        PostImportResultDTO result;
+        try (MockedStatic<Search> search = mockStatic(Search.class, Answers.RETURNS_DEEP_STUBS)) {
+            result = postImportService.importPosts(toStream(input));
+        }
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals(ErrorMessages.IMPORT_RECORD_FAILED, result.getErrors().get(0).getMessage());
+    }
+
+    private static ByteArrayInputStream toStream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
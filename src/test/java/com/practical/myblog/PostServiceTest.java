@@ -1,32 +1,63 @@
 package com.practical.myblog;
 
+import com.practical.myblog.dto.BulkTagOperationRequestDTO;
+import com.practical.myblog.dto.BulkTagOperationResponseDTO;
+import com.practical.myblog.dto.CursorPageResponseDTO;
+import com.practical.myblog.dto.PostField;
+import com.practical.myblog.dto.PostFieldsDTO;
+import com.practical.myblog.dto.PostPatchRequestDTO;
 import com.practical.myblog.dto.PostRequestDTO;
 import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.dto.PostTagNameDTO;
+import com.practical.myblog.dto.TagOperation;
+import com.practical.myblog.dto.TagPostCountDTO;
 import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.exception.PostConflictException;
 import com.practical.myblog.exception.PostValidationException;
+import com.practical.myblog.exception.TagValidationException;
+import com.practical.myblog.mapper.PostMapper;
 import com.practical.myblog.model.Post;
-import com.practical.myblog.model.Tag;
+import com.practical.myblog.model.PostBody;
 import com.practical.myblog.repository.PostRepository;
-import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.repository.PostStatsRepository;
+import com.practical.myblog.service.PostResponseCache;
 import com.practical.myblog.service.PostServiceImpl;
+import com.practical.myblog.service.PostViewCounter;
+import com.practical.myblog.service.TagDictionary;
+import com.practical.myblog.service.TagPostCounts;
+import com.practical.myblog.service.TagPostingLists;
 import com.practical.myblog.util.ErrorMessages;
+import com.practical.myblog.util.PostCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import org.hibernate.search.mapper.orm.Search;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,13 +65,25 @@ public class PostServiceTest {
     @Mock
     private PostRepository postRepository;
     @Mock
-    private TagRepository tagRepository;
-    @InjectMocks
-    private PostServiceImpl postService;
+    private TagDictionary tagDictionary;
+    @Mock
+    private TagPostCounts tagPostCounts;
+    @Mock
+    private TagPostingLists tagPostingLists;
     @Mock
-    private ModelMapper modelMapper;
+    private PostViewCounter postViewCounter;
     @Mock
+    private PostStatsRepository postStatsRepository;
+    @InjectMocks
+    private PostServiceImpl postService;
+    @Spy
+    private PostMapper postMapper = Mappers.getMapper(PostMapper.class);
+    // Deep stubs answer the criteria API calls of updates
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private EntityManager entityManager;
+    @Spy
+    private PostResponseCache postResponseCache =
+            new PostResponseCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(5));
 
     @BeforeEach
     void setUp() {
@@ -58,20 +101,15 @@ public class PostServiceTest {
     @Test
     @DisplayName("Should return a page of PostResponseDTOs")
     void getAllPosts_Success() {
-        Post post1 = new Post(1L, "Title1", "Text1", new HashSet<>(), "url1", "url1");
-        Post post2 = new Post(2L, "Title2", "Text2", new HashSet<>(), "url2", "url2");
-
         PostResponseDTO responseDto1 = new PostResponseDTO(1L, "Title1", "Text1", "url1", "url1");
         PostResponseDTO responseDto2 = new PostResponseDTO(2L, "Title2", "Text2", "url2", "url2");
 
         PageRequest pageRequest = PageRequest.of(0, 10);
-        Page<Post> postPage = new PageImpl<>(List.of(post1, post2), pageRequest, 2);
+        Page<PostResponseDTO> postPage = new PageImpl<>(List.of(responseDto1, responseDto2), pageRequest, 2);
 
-        when(postRepository.findAll(pageRequest)).thenReturn(postPage);
-        when(modelMapper.map(post1, PostResponseDTO.class)).thenReturn(responseDto1);
-        when(modelMapper.map(post2, PostResponseDTO.class)).thenReturn(responseDto2);
+        when(postRepository.findAllPostResponses(pageRequest)).thenReturn(postPage);
 
-        Page<PostResponseDTO> posts = postService.getAllPosts(0, 10);
+        Page<PostResponseDTO> posts = postService.getAllPosts(0, 10, false);
 
         assertEquals(2, posts.getContent().size());
         assertEquals("Title1", posts.getContent().get(0).getTitle());
@@ -82,26 +120,90 @@ public class PostServiceTest {
     @DisplayName("Should return an empty page when no posts are found")
     void getAllPosts_NoPosts() {
         PageRequest pageRequest = PageRequest.of(0, 10);
-        Page<Post> emptyPostPage = new PageImpl<>(Collections.emptyList(), pageRequest, 0);
+        Page<PostResponseDTO> emptyPostPage = new PageImpl<>(Collections.emptyList(), pageRequest, 0);
 
-        when(postRepository.findAll(pageRequest)).thenReturn(emptyPostPage);
+        when(postRepository.findAllPostResponses(pageRequest)).thenReturn(emptyPostPage);
 
-        Page<PostResponseDTO> posts = postService.getAllPosts(0, 10);
+        Page<PostResponseDTO> posts = postService.getAllPosts(0, 10, false);
 
         assertTrue(posts.isEmpty());
     }
 
 
+    @Test
+    @DisplayName("Should embed tag names of a page of posts with a single query")
+    void getAllPosts_IncludeTags() {
+        PostResponseDTO responseDto1 = new PostResponseDTO(1L, "Title1", "Text1", "url1", "url1");
+        PostResponseDTO responseDto2 = new PostResponseDTO(2L, "Title2", "Text2", "url2", "url2");
+
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Page<PostResponseDTO> postPage = new PageImpl<>(List.of(responseDto1, responseDto2), pageRequest, 2);
+
+        when(postRepository.findAllPostResponses(pageRequest)).thenReturn(postPage);
+        when(postRepository.findTagNamesByPostIds(List.of(1L, 2L)))
+                .thenReturn(List.of(new PostTagNameDTO(1L, "java"), new PostTagNameDTO(1L, "spring")));
+
+        Page<PostResponseDTO> posts = postService.getAllPosts(0, 10, true);
+
+        assertEquals(Set.of("java", "spring"), posts.getContent().get(0).getTags());
+        assertTrue(posts.getContent().get(1).getTags().isEmpty());
+        verify(postRepository, times(1)).findTagNamesByPostIds(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Should return only the requested fields and add the tag names")
+    void getAllPostFields_IncludeTags() {
+        Set<PostField> fields = PostField.parse("title");
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        PostFieldsDTO post1 = new PostFieldsDTO(1L, 0L, new LinkedHashMap<>(Map.of("id", 1L, "title", "Title1")));
+        PostFieldsDTO post2 = new PostFieldsDTO(2L, 0L, new LinkedHashMap<>(Map.of("id", 2L, "title", "Title2")));
+
+        when(postRepository.findPostFields(fields, null, pageRequest))
+                .thenReturn(new PageImpl<>(List.of(post1, post2), pageRequest, 2));
+        when(postRepository.findTagNamesByPostIds(List.of(1L, 2L)))
+                .thenReturn(List.of(new PostTagNameDTO(1L, "java")));
+
+        Page<PostFieldsDTO> posts = postService.getAllPostFields(fields, 0, 10, true);
+
+        assertEquals(Set.of("id", "title", "tags"), posts.getContent().get(0).getFields().keySet());
+        assertEquals(Set.of("java"), posts.getContent().get(0).getFields().get("tags"));
+        assertEquals(Set.of(), posts.getContent().get(1).getFields().get("tags"));
+    }
+
+    @Test
+    @DisplayName("Should return a cursor page of the requested fields")
+    void getPostFieldsAfter_HasNextPage() {
+        Set<PostField> fields = PostField.parse("id,title");
+        PostFieldsDTO post1 = new PostFieldsDTO(11L, 0L, new LinkedHashMap<>(Map.of("id", 11L, "title", "Title1")));
+        PostFieldsDTO post2 = new PostFieldsDTO(12L, 0L, new LinkedHashMap<>(Map.of("id", 12L, "title", "Title2")));
+        PostFieldsDTO post3 = new PostFieldsDTO(13L, 0L, new LinkedHashMap<>(Map.of("id", 13L, "title", "Title3")));
+
+        when(postRepository.findPostFieldsAfterId(fields, null, 10L, 3)).thenReturn(List.of(post1, post2, post3));
+
+        CursorPageResponseDTO<PostFieldsDTO> page = postService.getPostFieldsAfter(fields, PostCursor.encode(10L), 2, false);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(12L, PostCursor.decode(page.getNextCursor()));
+        verify(postRepository, never()).findTagNamesByPostIds(any());
+    }
+
+    @Test
+    @DisplayName("Should throw a PostValidationException for an unknown field")
+    void parsePostFields_UnknownField() {
+        PostValidationException exception = assertThrows(PostValidationException.class, () -> PostField.parse("id,body"));
+
+        assertEquals(ErrorMessages.UNKNOWN_POST_FIELD + "body", exception.getMessage());
+    }
+
     @Test
     @DisplayName("Should return a PostResponseDTO with an existing post")
     void getPost_ExistingPost() {
         Post post = new Post(1L, "Title", "Text", new HashSet<>(), "url", "url");
-        PostResponseDTO expectedDTO = new PostResponseDTO(post.getId(), post.getTitle(), post.getText(), post.getImageUrl(), post.getVideoUrl());
+        PostResponseDTO expectedDTO = new PostResponseDTO(post.getId(), post.getTitle(), post.getBody().getText(), post.getImageUrl(), post.getVideoUrl());
 
-        when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
-        when(modelMapper.map(post, PostResponseDTO.class)).thenReturn(expectedDTO);
+        when(postRepository.findPostResponseById(post.getId())).thenReturn(Optional.of(expectedDTO));
 
-        PostResponseDTO resultDTO = postService.getPost(post.getId());
+        PostResponseDTO resultDTO = postService.getPost(post.getId(), false);
 
         assertNotNull(resultDTO);
         assertEquals(expectedDTO.getId(), resultDTO.getId());
@@ -115,12 +217,53 @@ public class PostServiceTest {
     @DisplayName("Should throw PostValidationException when post does not exist")
     void getPost_PostNotFound() {
         Long postId = 1L;
-        when(postRepository.findById(postId)).thenReturn(Optional.empty());
+        when(postRepository.findPostResponseById(postId)).thenReturn(Optional.empty());
 
-        PostValidationException exception = assertThrows(PostValidationException.class, () -> postService.getPost(postId));
+        PostValidationException exception = assertThrows(PostValidationException.class, () -> postService.getPost(postId, false));
         assertEquals("Post not found with id: " + postId, exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Should serve a post from the cache after the first read")
+    void getPost_CachedAfterFirstRead() {
+        PostResponseDTO postDTO = new PostResponseDTO(1L, "Title", "Text", "url", "url");
+
+        when(postRepository.findPostResponseById(1L)).thenReturn(Optional.of(postDTO));
+        when(postRepository.findTagNamesByPostIds(List.of(1L))).thenReturn(List.of(new PostTagNameDTO(1L, "java")));
+
+        PostResponseDTO withoutTags = postService.getPost(1L, false);
+        PostResponseDTO withTags = postService.getPost(1L, true);
+
+        assertNull(withoutTags.getTags());
+        assertEquals(Set.of("java"), withTags.getTags());
+        verify(postRepository, times(1)).findPostResponseById(1L);
+        verify(postRepository, times(1)).findTagNamesByPostIds(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Should reload a cached post after it is updated")
+    void getPost_ReloadedAfterUpdate() {
+        PostRequestDTO postRequestDTO = new PostRequestDTO();
+        postRequestDTO.setTitle("New Title");
+        postRequestDTO.setText("New Text");
+
+        when(postRepository.findPostResponseById(1L)).thenReturn(
+                Optional.of(new PostResponseDTO(1L, "Old Title", "Old Text", "url", "url")),
+                Optional.of(new PostResponseDTO(1L, "New Title", "New Text", "url", "url")));
+        when(entityManager.createQuery(any(CriteriaUpdate.class)).executeUpdate()).thenReturn(1);
+
+        try (MockedStatic<Search> search = mockStatic(Search.class, Answers.RETURNS_DEEP_STUBS)) {
+            postService.getPost(1L, false);
+            postService.updatePost(1L, postRequestDTO, null);
+            PostResponseDTO result = postService.getPost(1L, false);
+
+            assertEquals("New Title", result.getTitle());
+        }
+        verify(postResponseCache).invalidate(1L);
+        // First read, the response of the update and the read after it
+        verify(postRepository, times(3)).findPostResponseById(1L);
+    }
+
     @Test
     @DisplayName("Should throw PostValidationException for empty title")
     void addPost_InvalidPost() {
@@ -140,11 +283,8 @@ public class PostServiceTest {
         postRequestDTO.setText("Valid Text");
 
         Post post = new Post(1L, "Valid Title", "Valid Text", new HashSet<>(), "url", "url");
-        PostResponseDTO expectedResponseDTO = new PostResponseDTO(1L, "Valid Title", "Valid Text", "url", "url");
 
-        when(modelMapper.map(postRequestDTO, Post.class)).thenReturn(post);
         when(postRepository.save(any(Post.class))).thenReturn(post);
-        when(modelMapper.map(post, PostResponseDTO.class)).thenReturn(expectedResponseDTO);
 
         PostResponseDTO responseDTO = postService.addPost(postRequestDTO);
 
@@ -159,17 +299,9 @@ public class PostServiceTest {
     @DisplayName("Should return set of TagResponseDTOs for a post")
     void getTagsOfPost_Success() {
         Long postId = 1L;
-        Post post = new Post(postId, "Title", "Text", new HashSet<>(), "url", "url");
-
-        Tag tag = new Tag(1L, "Tag", new HashSet<>());
-        Set<Tag> tagSet = new HashSet<>();
-        tagSet.add(tag);
-
         TagResponseDTO expectedTagResponseDTO = new TagResponseDTO(1L, "Tag");
 
-        when(postRepository.findById(postId)).thenReturn(Optional.of(post));
-        when(postRepository.tagsByPost(postId)).thenReturn(tagSet);
-        when(modelMapper.map(tag, TagResponseDTO.class)).thenReturn(expectedTagResponseDTO);
+        when(postRepository.tagResponsesByPost(postId)).thenReturn(Set.of(expectedTagResponseDTO));
 
         Set<TagResponseDTO> tagResponseDTOs = postService.getTagsOfPost(postId);
 
@@ -193,15 +325,12 @@ public class PostServiceTest {
     @Test
     @DisplayName("Should return a PostResponseDTO with added tags")
     void addTagsToPost_Success() {
-        Post post = new Post(1L, "Title", "Text", new HashSet<>(), "url", "url");
-        Tag tag = new Tag(1L, "Tag", new HashSet<>());
-
-        when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
-        when(tagRepository.findByName(tag.getName())).thenReturn(Optional.of(tag));
-        when(postRepository.existsTagForPost(post.getId(), tag.getName())).thenReturn(false);
-        when(postRepository.save(any(Post.class))).thenReturn(post);
+        PostResponseDTO postResponseDTO = new PostResponseDTO(1L, "Title", "Text", "url", "url");
+        when(postRepository.findPostResponseById(1L)).thenReturn(Optional.of(postResponseDTO));
+        when(tagDictionary.findId("Tag")).thenReturn(1L);
+        when(postRepository.attachTags(List.of(1L), Set.of(1L))).thenReturn(1);
 
-        ResponseEntity<PostResponseDTO> response = postService.addTagsToPost(post.getId(), List.of(tag.getName()));
+        ResponseEntity<PostResponseDTO> response = postService.addTagsToPost(1L, List.of("Tag"));
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
@@ -210,51 +339,134 @@ public class PostServiceTest {
         assertEquals("Title", response.getBody().getTitle());
         assertEquals("Text", response.getBody().getText());
 
-        assertTrue(post.getTags().contains(tag));
+        verify(postRepository).attachTags(List.of(1L), Set.of(1L));
+        verify(tagPostCounts).increment(Set.of(1L));
 
         assertEquals(String.valueOf(1L), response.getHeaders().getFirst("Post-ID"));
     }
 
+    @Test
+    @DisplayName("Should throw TagValidationException when the tag is already attached to the post")
+    void addTagsToPost_TagAlreadyExists() {
+        PostResponseDTO postResponseDTO = new PostResponseDTO(1L, "Title", "Text", "url", "url");
+
+        when(postRepository.findPostResponseById(1L)).thenReturn(Optional.of(postResponseDTO));
+        when(postRepository.tagResponsesByPost(1L)).thenReturn(Set.of(new TagResponseDTO(1L, "Tag")));
+
+        TagValidationException exception = assertThrows(TagValidationException.class,
+                () -> postService.addTagsToPost(1L, List.of("Tag")));
+
+        assertEquals("Tag" + ErrorMessages.TAG_ALREADY_EXISTS, exception.getMessage());
+        verify(postRepository, never()).attachTags(any(), any());
+    }
+
     @Test
     @DisplayName("Should remove tags from pos successfully")
     void removeTagsFromPost_Success() {
-        Post post = new Post(1L, "Title", "Text", new HashSet<>(), "url", "url");
-        Tag tag = new Tag(1L, "Tag", new HashSet<>());
+        when(postRepository.tagResponsesByPost(1L)).thenReturn(Set.of(new TagResponseDTO(1L, "Tag"), new TagResponseDTO(2L, "Other")));
+
+        postService.removeTagsFromPost(1L, List.of("Tag"));
+
+        // Verify that only the requested relation was deleted, with a single statement
+        verify(postRepository).detachTags(List.of(1L), Set.of(1L));
+    }
 
-        Set<Tag> tagSet = new HashSet<>();
-        tagSet.add(tag);
+    @Test
+    @DisplayName("Should throw TagValidationException when the tag is not attached to the post")
+    void removeTagsFromPost_TagNotInPost() {
+        when(postRepository.tagResponsesByPost(1L)).thenReturn(Set.of(new TagResponseDTO(2L, "Other")));
+
+        TagValidationException exception = assertThrows(TagValidationException.class,
+                () -> postService.removeTagsFromPost(1L, List.of("Tag")));
+
+        assertEquals("Tag" + ErrorMessages.TAG_NOT_EXISTS_IN_POST, exception.getMessage());
+        verify(postRepository, never()).detachTags(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should attach tags to many posts with one statement")
+    void applyTagOperation_Attach() {
+        var request = new BulkTagOperationRequestDTO(TagOperation.ATTACH, List.of(1L, 2L, 3L), List.of("Tag1", "Tag2"));
+
+        when(tagDictionary.findId("Tag1")).thenReturn(1L);
+        when(tagDictionary.findId("Tag2")).thenReturn(2L);
+        when(postRepository.attachTags(Set.of(1L, 2L, 3L), Set.of(1L, 2L))).thenReturn(5);
+        when(postRepository.findExistingIds(Set.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L, 3L));
+        // Tag1 was on one of the posts, afterwards both tags are on all three
+        when(postRepository.countLinksPerTag(Set.of(1L, 2L, 3L), Set.of(1L, 2L))).thenReturn(
+                List.of(new TagPostCountDTO(1L, "Tag1", 1L)),
+                List.of(new TagPostCountDTO(1L, "Tag1", 3L), new TagPostCountDTO(2L, "Tag2", 3L)));
+
+        BulkTagOperationResponseDTO response = postService.applyTagOperation(request);
+
+        assertEquals(TagOperation.ATTACH, response.getOperation());
+        assertEquals(5, response.getChangedRows());
+        verify(tagPostCounts).adjust(Map.of(1L, 2L, 2L, 3L));
+        verify(tagPostingLists).add(Set.of(1L, 2L), List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @DisplayName("Should page through the posts matching a tag query and read only the ids of the page")
+    void getAllPostsForTags_SecondPage() {
+        when(tagDictionary.findId("java")).thenReturn(1L);
+        when(tagDictionary.findId("spring")).thenReturn(2L);
+        when(tagDictionary.findId("legacy")).thenReturn(3L);
+        Roaring64NavigableMap matches = new Roaring64NavigableMap();
+        for (long id : new long[]{4L, 9L, 15L, 16L, 23L}) {
+            matches.addLong(id);
+        }
+        when(tagPostingLists.match(Set.of(1L), Set.of(2L), Set.of(3L))).thenReturn(matches);
+        when(postRepository.findPostResponsesByIds(List.of(15L, 16L))).thenReturn(List.of(
+                new PostResponseDTO(16L, "Title16", "Text16", "url", "url"),
+                new PostResponseDTO(15L, "Title15", "Text15", "url", "url")));
+
+        Page<PostResponseDTO> posts = postService.getAllPostsForTags(
+                List.of("java"), List.of("spring"), List.of("legacy"), 1, 2, false);
+
+        assertEquals(List.of(15L, 16L), posts.getContent().stream().map(PostResponseDTO::getId).toList());
+        assertEquals(5, posts.getTotalElements());
+        assertEquals(3, posts.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Should throw TagValidationException when a tag query has only excluded tags")
+    void getAllPostsForTags_OnlyNone() {
+        TagValidationException exception = assertThrows(TagValidationException.class,
+                () -> postService.getAllPostsForTags(null, List.of(), List.of("legacy"), 0, 10, false));
 
-        when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
-        when(postRepository.existsTagForPost(post.getId(), tag.getName())).thenReturn(false);
-        when(tagRepository.findByName(tag.getName())).thenReturn(Optional.of(tag));
-        when(postRepository.tagsByPost(post.getId())).thenReturn(tagSet);
+        assertEquals(ErrorMessages.TAG_QUERY_NEEDS_ALL_OR_ANY, exception.getMessage());
+        verify(tagPostingLists, never()).match(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should throw TagValidationException when a tag of a bulk operation doesn't exist")
+    void applyTagOperation_TagNotFound() {
+        var request = new BulkTagOperationRequestDTO(TagOperation.DETACH, List.of(1L), List.of("Tag1", "Missing"));
 
-        postService.removeTagsFromPost(post.getId(), List.of(tag.getName()));
+        when(tagDictionary.findId("Tag1")).thenReturn(1L);
+        // A mocked Long method returns 0 by default, the dictionary returns null for an unknown name
+        when(tagDictionary.findId("Missing")).thenReturn(null);
 
-        assertTrue(post.getTags().isEmpty());
+        TagValidationException exception = assertThrows(TagValidationException.class, () -> postService.applyTagOperation(request));
 
-        // Verify that the post was saved after removing the tag
-        verify(postRepository).save(post);
+        assertEquals(ErrorMessages.TAG_NOT_FOUND_WITH_NAME + "Missing", exception.getMessage());
+        verify(postRepository, never()).detachTags(any(), any());
     }
 
     @Test
     @DisplayName("Should return a page of PostResponseDTOs for a given tag")
     void getAllPostsForTag_Success() {
         String tagName = "Tag";
-        Post post1 = new Post(1L, "Title1", "Text1", new HashSet<>(), "url", "url");
-        Post post2 = new Post(2L, "Title2", "Text2", new HashSet<>(), "url", "url");
 
         PostResponseDTO postResponseDTO1 = new PostResponseDTO(1L, "Title1", "Text1", "url", "url");
         PostResponseDTO postResponseDTO2 = new PostResponseDTO(2L, "Title2", "Text2", "url", "url");
 
         PageRequest pageRequest = PageRequest.of(0, 10);
-        var postPage = new PageImpl<>(List.of(post1, post2), pageRequest, 2);
+        Page<PostResponseDTO> postPage = new PageImpl<>(List.of(postResponseDTO1, postResponseDTO2), pageRequest, 2);
 
-        when(postRepository.findAllPostsByTagName(tagName, pageRequest)).thenReturn(Optional.of(postPage));
-        when(modelMapper.map(post1, PostResponseDTO.class)).thenReturn(postResponseDTO1);
-        when(modelMapper.map(post2, PostResponseDTO.class)).thenReturn(postResponseDTO2);
+        when(postRepository.findAllPostResponsesByTagName(tagName, pageRequest)).thenReturn(Optional.of(postPage));
 
-        Page<PostResponseDTO> result = postService.getAllPostsForTag(tagName, 0, 10);
+        Page<PostResponseDTO> result = postService.getAllPostsForTag(tagName, 0, 10, false);
 
         assertNotNull(result);
         assertEquals(2, result.getContent().size());
@@ -267,31 +479,115 @@ public class PostServiceTest {
         assertEquals("Title2", resultPost2.getTitle());
         assertEquals("Text2", resultPost2.getText());
 
-        verify(postRepository).findAllPostsByTagName(tagName, pageRequest);
+        verify(postRepository).findAllPostResponsesByTagName(tagName, pageRequest);
     }
 
 
     @Test
     @DisplayName("Should update post successfully")
     void updatePost_Success() {
-        Post post = new Post(1L, "Old Title", "Old Text", new HashSet<>(), "url", "url");
-
         PostRequestDTO postRequestDTO = new PostRequestDTO();
         postRequestDTO.setTitle("New Title");
         postRequestDTO.setText("New Text");
 
-        when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
-        when(postRepository.save(post)).thenReturn(post);
+        when(entityManager.createQuery(any(CriteriaUpdate.class)).executeUpdate()).thenReturn(1);
+        when(postRepository.findPostResponseById(1L))
+                .thenReturn(Optional.of(new PostResponseDTO(1L, "New Title", "New Text", "url", "url", 4L, null)));
+
+        try (MockedStatic<Search> search = mockStatic(Search.class, Answers.RETURNS_DEEP_STUBS)) {
+            PostResponseDTO updatedPostDTO = postService.updatePost(1L, postRequestDTO, 3L);
+
+            assertNotNull(updatedPostDTO);
+            assertEquals(1L, updatedPostDTO.getId());
+            assertEquals("New Title", updatedPostDTO.getTitle());
+            assertEquals("New Text", updatedPostDTO.getText());
+            assertEquals(4L, updatedPostDTO.getVersion());
+            // Title and text are indexed, so the post is reindexed
+            search.verify(() -> Search.session(entityManager));
+        }
+
+        // The text goes to the body row, the post row only gets its excerpt
+        ArgumentCaptor<PostBody> body = ArgumentCaptor.forClass(PostBody.class);
+        verify(entityManager).merge(body.capture());
+        assertEquals(1L, body.getValue().getPostId());
+        assertEquals("New Text", body.getValue().getText());
+        verify(postRepository, never()).findById(any());
+        verify(postRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should throw PostConflictException when the post changed since it was read")
+    void updatePost_VersionConflict() {
+        PostRequestDTO postRequestDTO = new PostRequestDTO();
+        postRequestDTO.setTitle("New Title");
+
+        when(entityManager.createQuery(any(CriteriaUpdate.class)).executeUpdate()).thenReturn(0);
+        when(postRepository.existsById(1L)).thenReturn(true);
+
+        PostConflictException exception = assertThrows(PostConflictException.class,
+                () -> postService.updatePost(1L, postRequestDTO, 3L));
+        assertEquals(ErrorMessages.POST_VERSION_CONFLICT + 1L, exception.getMessage());
+        verify(postResponseCache, never()).invalidate(1L);
+    }
+
+    @Test
+    @DisplayName("Should throw PostValidationException when the updated post does not exist")
+    void updatePost_PostNotFound() {
+        PostRequestDTO postRequestDTO = new PostRequestDTO();
+        postRequestDTO.setTitle("New Title");
+
+        when(entityManager.createQuery(any(CriteriaUpdate.class)).executeUpdate()).thenReturn(0);
+        when(postRepository.existsById(1L)).thenReturn(false);
+
+        PostValidationException exception = assertThrows(PostValidationException.class,
+                () -> postService.updatePost(1L, postRequestDTO, null));
+        assertEquals("Post not found with id: " + 1L, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should patch a non-indexed field without reindexing the post")
+    void patchPost_ImageUrlOnly() {
+        PostPatchRequestDTO patch = new PostPatchRequestDTO(null, null, "new-url", null);
+
+        when(postRepository.findPostResponseById(1L)).thenReturn(
+                Optional.of(new PostResponseDTO(1L, "Title", "Text", "url", "url", 2L, null)),
+                Optional.of(new PostResponseDTO(1L, "Title", "Text", "new-url", "url", 3L, null)));
+        when(entityManager.createQuery(any(CriteriaUpdate.class)).executeUpdate()).thenReturn(1);
+
+        try (MockedStatic<Search> search = mockStatic(Search.class)) {
+            PostResponseDTO result = postService.patchPost(1L, patch, 2L);
+
+            assertEquals("new-url", result.getImageUrl());
+            assertEquals(3L, result.getVersion());
+            search.verifyNoInteractions();
+        }
+        verify(postResponseCache).invalidate(1L);
+    }
+
+    @Test
+    @DisplayName("Should not write anything when a patch changes no values")
+    void patchPost_NoChanges() {
+        PostPatchRequestDTO patch = new PostPatchRequestDTO("Title", null, "url", null);
+
+        when(postRepository.findPostResponseById(1L))
+                .thenReturn(Optional.of(new PostResponseDTO(1L, "Title", "Text", "url", "url", 2L, null)));
+
+        PostResponseDTO result = postService.patchPost(1L, patch, null);
+
+        assertEquals(2L, result.getVersion());
+        verify(entityManager, never()).createQuery(any(CriteriaUpdate.class));
+    }
 
-        PostResponseDTO updatedPostDTO = postService.updatePost(post.getId(), postRequestDTO);
+    @Test
+    @DisplayName("Should throw PostConflictException when the patch is based on an old version")
+    void patchPost_VersionConflict() {
+        PostPatchRequestDTO patch = new PostPatchRequestDTO("New Title", null, null, null);
 
-        assertNotNull(updatedPostDTO);
-        assertEquals(post.getId(), updatedPostDTO.getId());
-        assertEquals("New Title", updatedPostDTO.getTitle());
-        assertEquals("New Text", updatedPostDTO.getText());
+        when(postRepository.findPostResponseById(1L))
+                .thenReturn(Optional.of(new PostResponseDTO(1L, "Title", "Text", "url", "url", 5L, null)));
 
-        verify(postRepository).findById(post.getId());
-        verify(postRepository).save(post);
+        assertThrows(PostConflictException.class, () -> postService.patchPost(1L, patch, 4L));
+        verify(entityManager, never()).createQuery(any(CriteriaUpdate.class));
     }
 
     @Test
@@ -299,11 +595,70 @@ public class PostServiceTest {
     void deletePost_Success() {
         Long postId = 1L;
 
-        when(postRepository.existsById(postId)).thenReturn(true);
+        when(postRepository.deleteByIds(List.of(postId))).thenReturn(1);
+        when(postRepository.countLinksPerTag(List.of(postId))).thenReturn(List.of(new TagPostCountDTO(4L, "java", 1L)));
+
+        try (MockedStatic<Search> search = mockStatic(Search.class, Answers.RETURNS_DEEP_STUBS)) {
+            postService.deletePost(postId);
+
+            // The index document is purged explicitly
+            search.verify(() -> Search.session(entityManager));
+        }
+
+        verify(postRepository).deleteTagLinksOfPosts(List.of(postId));
+        verify(postStatsRepository).deleteByPostIds(List.of(postId));
+        verify(postViewCounter).forget(List.of(postId));
+        verify(postRepository).deleteByIds(List.of(postId));
+        verify(postRepository, never()).deleteById(postId);
+        verify(postResponseCache).invalidate(postId);
+        verify(tagPostCounts).decrement(List.of(4L));
+    }
+
+    @Test
+    @DisplayName("Should throw PostValidationException when the deleted post does not exist")
+    void deletePost_PostNotFound() {
+        when(postRepository.deleteByIds(List.of(1L))).thenReturn(0);
 
-        postService.deletePost(postId);
+        PostValidationException exception = assertThrows(PostValidationException.class, () -> postService.deletePost(1L));
+        assertEquals("Post not found with id: " + 1L, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should return a cursor page and the cursor of the next page")
+    void getPostsAfter_HasNextPage() {
+        PostResponseDTO post1 = new PostResponseDTO(11L, "Title1", "Text1", "url1", "url1");
+        PostResponseDTO post2 = new PostResponseDTO(12L, "Title2", "Text2", "url2", "url2");
+        PostResponseDTO post3 = new PostResponseDTO(13L, "Title3", "Text3", "url3", "url3");
+
+        // One row more than the page size is requested
+        when(postRepository.findPostResponsesAfterId(10L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(post1, post2, post3));
+
+        CursorPageResponseDTO<PostResponseDTO> page = postService.getPostsAfter(PostCursor.encode(10L), 2, false);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(12L, PostCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Should return no next cursor on the last page")
+    void getPostsAfter_LastPage() {
+        PostResponseDTO post1 = new PostResponseDTO(1L, "Title1", "Text1", "url1", "url1");
+
+        when(postRepository.findPostResponsesAfterId(0L, PageRequest.of(0, 11))).thenReturn(List.of(post1));
+
+        CursorPageResponseDTO<PostResponseDTO> page = postService.getPostsAfter(null, 10, false);
+
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should throw PostValidationException when the cursor is invalid")
+    void getPostsAfter_InvalidCursor() {
+        PostValidationException exception = assertThrows(PostValidationException.class,
+                () -> postService.getPostsAfter("not-a-cursor", 10, false));
 
-        verify(postRepository).existsById(postId);
-        verify(postRepository).deleteById(postId);
+        assertEquals(ErrorMessages.INVALID_CURSOR, exception.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,149 @@
+package com.practical.myblog;
+
+import com.practical.myblog.dto.PopularPostDTO;
+import com.practical.myblog.repository.PostStatsRepository;
+import com.practical.myblog.service.PostViewCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostViewCounterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PostStatsRepository postStatsRepository;
+
+    private PostViewCounter postViewCounter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        postViewCounter = new PostViewCounter(jdbcTemplate, postStatsRepository, new SimpleMeterRegistry(), 500, 2);
+    }
+
+    @Test
+    @DisplayName("Should flush the summed views of each post as one batch")
+    @SuppressWarnings("unchecked")
+    void flush_SumsViewsPerPost() {
+        postViewCounter.recordView(2L);
+        postViewCounter.recordView(1L);
+        postViewCounter.recordView(2L);
+
+        postViewCounter.flush();
+
+        ArgumentCaptor<Collection<long[]>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        List<long[]> flushed = List.copyOf(rows.getValue());
+        assertEquals(2, flushed.size());
+        // Sorted by post id
+        assertArrayEquals(new long[]{1L, 1L}, flushed.get(0));
+        assertArrayEquals(new long[]{2L, 2L}, flushed.get(1));
+    }
+
+    @Test
+    @DisplayName("Should not write anything when no post was viewed since the last flush")
+    @SuppressWarnings("unchecked")
+    void flush_NothingToWrite() {
+        postViewCounter.recordView(1L);
+        postViewCounter.flush();
+        postViewCounter.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Should keep the views of a failed flush for the next one")
+    @SuppressWarnings("unchecked")
+    void flush_RetriesAfterFailure() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("Database is down"))
+                .thenReturn(new int[][]{});
+        postViewCounter.recordView(1L);
+        postViewCounter.recordView(1L);
+
+        postViewCounter.flush();
+        postViewCounter.recordView(1L);
+        postViewCounter.flush();
+
+        ArgumentCaptor<Collection<long[]>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertArrayEquals(new long[]{1L, 3L}, List.copyOf(rows.getAllValues().get(1)).get(0));
+        verify(postStatsRepository, times(1)).findMostViewed(PageRequest.of(0, 2));
+    }
+
+    @Test
+    @DisplayName("Should serve the most viewed posts of the last flush, limited to the requested size")
+    void getMostViewed_FromLastFlush() {
+        when(postStatsRepository.findMostViewed(PageRequest.of(0, 2)))
+                .thenReturn(List.of(new PopularPostDTO(3L, "Title3", 10), new PopularPostDTO(1L, "Title1", 4)));
+
+        assertTrue(postViewCounter.getMostViewed(10).isEmpty());
+        postViewCounter.flush();
+
+        List<PopularPostDTO> mostViewed = postViewCounter.getMostViewed(1);
+        assertEquals(1, mostViewed.size());
+        assertEquals(3L, mostViewed.get(0).getId());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Should drop the pending views of deleted posts")
+    @SuppressWarnings("unchecked")
+    void forget_DropsPendingViews() {
+        postViewCounter.recordView(1L);
+        postViewCounter.recordView(2L);
+
+        postViewCounter.forget(List.of(1L));
+        postViewCounter.flush();
+
+        ArgumentCaptor<Collection<long[]>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        List<long[]> flushed = List.copyOf(rows.getValue());
+        assertEquals(1, flushed.size());
+        assertArrayEquals(new long[]{2L, 1L}, flushed.get(0));
+    }
+
+    @Test
+    @DisplayName("Should update the most viewed posts from the flushed totals and reload them after a delete")
+    void getMostViewed_UpdatedByFlush() {
+        when(postStatsRepository.findMostViewed(PageRequest.of(0, 2)))
+                .thenReturn(List.of(new PopularPostDTO(3L, "Title3", 10), new PopularPostDTO(1L, "Title1", 4)));
+        when(postStatsRepository.findViewCounts(List.of(5L))).thenReturn(List.of(new PopularPostDTO(5L, "Title5", 7)));
+        postViewCounter.flush();
+
+        postViewCounter.recordView(5L);
+        postViewCounter.flush();
+
+        assertEquals(List.of(3L, 5L), postViewCounter.getMostViewed(10).stream().map(PopularPostDTO::getId).toList());
+        verify(postStatsRepository, times(1)).findMostViewed(PageRequest.of(0, 2));
+
+        postViewCounter.forget(List.of(3L));
+        assertEquals(List.of(5L), postViewCounter.getMostViewed(10).stream().map(PopularPostDTO::getId).toList());
+        postViewCounter.flush();
+        verify(postStatsRepository, times(2)).findMostViewed(PageRequest.of(0, 2));
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.practical.myblog.dto.TagRequestDTO;
 import com.practical.myblog.model.Tag;
 import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.service.TagDictionary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -46,6 +47,8 @@ public class TagControllerIntegrationTest {
 
     @Autowired
     private TagRepository tagRepository;
+    @Autowired
+    private TagDictionary tagDictionary;
 
     private Tag tag1;
     private Tag tag2;
@@ -71,6 +74,8 @@ public class TagControllerIntegrationTest {
 
         tagRepository.save(tag1);
         tagRepository.save(tag2);
+        // Tags saved through the repository bypass the dictionary
+        tagDictionary.reload();
     }
 
     @Test
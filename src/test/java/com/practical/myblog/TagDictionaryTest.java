@@ -0,0 +1,82 @@
+package com.practical.myblog;
+
+import com.practical.myblog.dto.TagResponseDTO;
+import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.service.TagDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TagDictionaryTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    private TagDictionary tagDictionary;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tagRepository.findAllTagResponses())
+                .thenReturn(List.of(new TagResponseDTO(1L, "java"), new TagResponseDTO(2L, "spring")));
+        tagDictionary = new TagDictionary(tagRepository, new SimpleMeterRegistry());
+        tagDictionary.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should resolve names and ids loaded at startup without further queries")
+    void lookups_FromMemory() {
+        assertEquals(1L, tagDictionary.findId("java"));
+        assertEquals("spring", tagDictionary.findName(2L));
+        assertTrue(tagDictionary.contains("spring"));
+        assertNull(tagDictionary.findId("kotlin"));
+        assertEquals(2, tagDictionary.size());
+        verify(tagRepository, times(1)).findAllTagResponses();
+    }
+
+    @Test
+    @DisplayName("Should replace the old name of a renamed tag")
+    void put_RenamesTag() {
+        tagDictionary.put(1L, "jvm");
+
+        assertEquals(1L, tagDictionary.findId("jvm"));
+        assertFalse(tagDictionary.contains("java"));
+        assertEquals("jvm", tagDictionary.findName(1L));
+    }
+
+    @Test
+    @DisplayName("Should apply changes made in a transaction only after it commits")
+    void changes_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        tagDictionary.put(3L, "kotlin");
+        tagDictionary.removeAll(List.of(1L));
+
+        assertNull(tagDictionary.findId("kotlin"));
+        assertTrue(tagDictionary.contains("java"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(3L, tagDictionary.findId("kotlin"));
+        assertFalse(tagDictionary.contains("java"));
+    }
+}
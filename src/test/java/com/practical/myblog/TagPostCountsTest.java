@@ -0,0 +1,96 @@
+package com.practical.myblog;
+
+import com.practical.myblog.dto.TagPostCountDTO;
+import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.service.TagDictionary;
+import com.practical.myblog.service.TagPostCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TagPostCountsTest {
+
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private TagDictionary tagDictionary;
+
+    private TagPostCounts tagPostCounts;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tagRepository.countPostsPerTag()).thenReturn(List.of(
+                new TagPostCountDTO(1L, "java", 5L),
+                new TagPostCountDTO(2L, "spring", 8L),
+                new TagPostCountDTO(3L, "kotlin", 2L)));
+        when(tagDictionary.findName(1L)).thenReturn("java");
+        when(tagDictionary.findName(2L)).thenReturn("spring");
+        when(tagDictionary.findName(3L)).thenReturn("kotlin");
+        tagPostCounts = new TagPostCounts(tagRepository, tagDictionary);
+        tagPostCounts.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should return the top tags by post count from memory")
+    void getTop_RankedByCount() {
+        List<TagPostCountDTO> top = tagPostCounts.getTop(2);
+
+        assertEquals(List.of(new TagPostCountDTO(2L, "spring", 8L), new TagPostCountDTO(1L, "java", 5L)), top);
+        tagPostCounts.getTop(10);
+        verify(tagRepository, times(1)).countPostsPerTag();
+    }
+
+    @Test
+    @DisplayName("Should move tags in the ranking when their posts are attached and detached")
+    void adjust_ChangesRanking() {
+        tagPostCounts.adjust(Map.of(3L, 7L, 2L, -1L));
+        tagPostCounts.decrement(List.of(1L, 1L, 1L, 1L, 1L));
+
+        List<TagPostCountDTO> top = tagPostCounts.getTop(10);
+
+        // java has no posts left and drops out
+        assertEquals(List.of(new TagPostCountDTO(3L, "kotlin", 9L), new TagPostCountDTO(2L, "spring", 7L)), top);
+    }
+
+    @Test
+    @DisplayName("Should replace drifted counts with the stored ones on reconcile")
+    void reconcile_CorrectsDrift() {
+        tagPostCounts.increment(List.of(1L));
+        tagPostCounts.removeAll(List.of(3L));
+        assertEquals(List.of(new TagPostCountDTO(2L, "spring", 8L), new TagPostCountDTO(1L, "java", 6L)), tagPostCounts.getTop(10));
+
+        tagPostCounts.reconcile();
+
+        assertEquals(List.of(
+                new TagPostCountDTO(2L, "spring", 8L),
+                new TagPostCountDTO(1L, "java", 5L),
+                new TagPostCountDTO(3L, "kotlin", 2L)), tagPostCounts.getTop(10));
+    }
+
+    @Test
+    @DisplayName("Should not lose a delta applied while the reconcile query runs")
+    void reconcile_DeltaDuringQuery() {
+        when(tagRepository.countPostsPerTag())
+                .thenAnswer(invocation -> {
+                    // Committed after the query read post_tag
+                    tagPostCounts.increment(List.of(3L));
+                    return List.of(new TagPostCountDTO(3L, "kotlin", 2L));
+                })
+                .thenReturn(List.of(new TagPostCountDTO(3L, "kotlin", 3L)));
+
+        tagPostCounts.reconcile();
+
+        assertEquals(List.of(new TagPostCountDTO(3L, "kotlin", 3L)), tagPostCounts.getTop(10));
+    }
+}
@@ -0,0 +1,133 @@
+package com.practical.myblog;
+
+import com.practical.myblog.service.TagPostingLists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TagPostingListsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TagPostingLists tagPostingLists;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // post_tag rows as (tag_id, post_id): java 1, spring 2, legacy 3
+        long[][] rows = {
+                {1, 10}, {1, 11}, {1, 12}, {1, 13},
+                {2, 11}, {2, 12}, {2, 14},
+                {3, 12}
+        };
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (long[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(row[0]);
+                when(rs.getLong(2)).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        tagPostingLists = new TagPostingLists(jdbcTemplate, transactionManager);
+        tagPostingLists.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should combine all, any and none tags of a query")
+    void match_AllAnyNone() {
+        assertEquals(List.of(11L, 12L), ids(tagPostingLists.match(Set.of(1L, 2L), Set.of(), Set.of())));
+        assertEquals(List.of(10L, 11L, 12L, 13L, 14L), ids(tagPostingLists.match(Set.of(), Set.of(1L, 2L), Set.of())));
+        assertEquals(List.of(11L), ids(tagPostingLists.match(Set.of(1L), Set.of(2L), Set.of(3L))));
+        // A tag without posts empties an intersection
+        assertTrue(tagPostingLists.match(Set.of(1L, 99L), Set.of(), Set.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not change the posting lists when a query result is modified")
+    void match_ResultIsACopy() {
+        Roaring64NavigableMap result = tagPostingLists.match(Set.of(1L), Set.of(), Set.of());
+        result.addLong(99L);
+        result.removeLong(10L);
+        // A tag without posts gives a new empty bitmap each time
+        tagPostingLists.match(Set.of(42L), Set.of(), Set.of()).addLong(7L);
+
+        assertEquals(List.of(10L, 11L, 12L, 13L), ids(tagPostingLists.match(Set.of(1L), Set.of(), Set.of())));
+        assertTrue(tagPostingLists.match(Set.of(42L), Set.of(), Set.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply attached and detached posts and deleted tags")
+    void changes_UpdatePostingLists() {
+        tagPostingLists.add(List.of(3L), List.of(10L, 14L));
+        tagPostingLists.remove(List.of(1L, 2L), List.of(12L));
+
+        assertEquals(List.of(10L, 12L, 14L), ids(tagPostingLists.match(Set.of(3L), Set.of(), Set.of())));
+        assertEquals(List.of(11L), ids(tagPostingLists.match(Set.of(1L, 2L), Set.of(), Set.of())));
+
+        tagPostingLists.removeTags(List.of(3L));
+
+        assertTrue(tagPostingLists.match(Set.of(), Set.of(3L), Set.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should scan again when a change is applied during the rebuild")
+    void rebuild_ChangeDuringScan() {
+        List<long[]> rows = new ArrayList<>(List.of(new long[]{1, 10}, new long[]{3, 12}));
+        AtomicInteger scans = new AtomicInteger();
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (long[] row : List.copyOf(rows)) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(row[0]);
+                when(rs.getLong(2)).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            if (scans.incrementAndGet() == 1) {
+                // Another request attaches tag 3 to post 14 while the first scan runs
+                rows.add(new long[]{3, 14});
+                tagPostingLists.add(List.of(3L), List.of(14L));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        tagPostingLists.rebuild();
+
+        assertEquals(2, scans.get());
+        assertEquals(List.of(12L, 14L), ids(tagPostingLists.match(Set.of(3L), Set.of(), Set.of())));
+        assertEquals(List.of(10L), ids(tagPostingLists.match(Set.of(1L), Set.of(), Set.of())));
+    }
+
+    private static List<Long> ids(Roaring64NavigableMap postIds) {
+        List<Long> ids = new ArrayList<>();
+        LongIterator iterator = postIds.getLongIterator();
+        while (iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+}
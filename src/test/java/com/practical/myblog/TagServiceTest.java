@@ -5,6 +5,10 @@ import com.practical.myblog.dto.TagResponseDTO;
 import com.practical.myblog.exception.TagValidationException;
 import com.practical.myblog.model.Tag;
 import com.practical.myblog.repository.TagRepository;
+import com.practical.myblog.service.PostResponseCache;
+import com.practical.myblog.service.TagDictionary;
+import com.practical.myblog.service.TagPostCounts;
+import com.practical.myblog.service.TagPostingLists;
 import com.practical.myblog.service.TagServiceImpl;
 import com.practical.myblog.util.ErrorMessages;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +37,18 @@ public class TagServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private PostResponseCache postResponseCache;
+
+    @Mock
+    private TagDictionary tagDictionary;
+
+    @Mock
+    private TagPostCounts tagPostCounts;
+
+    @Mock
+    private TagPostingLists tagPostingLists;
+
     // Service is being tested so TagRepository mock is injected to it
     @InjectMocks
     private TagServiceImpl tagService;
@@ -118,6 +134,8 @@ public class TagServiceTest {
         assertNotNull(responseDTO);
         assertEquals("Tag1", responseDTO.get(0).getName());
         assertEquals("Tag2", responseDTO.get(1).getName());
+        verify(tagDictionary).put(1L, "Tag1");
+        verify(tagDictionary).put(1L, "Tag2");
     }
 
     @Test
@@ -137,14 +155,14 @@ public class TagServiceTest {
         TagRequestDTO tagRequestDTO = new TagRequestDTO();
         tagRequestDTO.setTags(List.of("Tag"));
 
-        Tag tag = new Tag(1L, "Tag", new HashSet<>());
-
         // Mocks that the case where tag already exists
-        when(tagRepository.findByName("Tag")).thenReturn(Optional.of(tag));
+        when(tagDictionary.contains("Tag")).thenReturn(true);
 
         TagValidationException exception = assertThrows(TagValidationException.class, () -> tagService.addTag(tagRequestDTO));
 
         assertEquals(ErrorMessages.TAG_NOT_UNIQUE, exception.getMessage());
+        // The uniqueness check is a lookup in memory
+        verify(tagRepository, never()).save(any(Tag.class));
     }
 
     @Test
@@ -163,14 +181,18 @@ public class TagServiceTest {
     void deleteTag_Success() {
         Long tagId = 1L;
 
-        // Mock existing tag
-        when(tagRepository.existsById(tagId)).thenReturn(true);
+        // Mock existing tag, one row is deleted
+        when(tagRepository.deleteByIds(List.of(tagId))).thenReturn(1);
 
         tagService.deleteTag(tagId);
 
-        // Verify that if the method deleteById called once during the test
-        // "verify" is useful when method returns void
-        verify(tagRepository, times(1)).deleteById(tagId);
+        // Relations are deleted with one statement before the tag, nothing is loaded
+        verify(tagRepository, times(1)).deletePostLinksOfTags(List.of(tagId));
+        verify(tagRepository, times(1)).deleteByIds(List.of(tagId));
+        verify(tagRepository, never()).deleteById(tagId);
+        verify(tagDictionary).removeAll(List.of(tagId));
+        verify(tagPostCounts).removeAll(List.of(tagId));
+        verify(tagPostingLists).removeTags(List.of(tagId));
     }
 
     @Test
@@ -178,8 +200,8 @@ public class TagServiceTest {
     void deleteTag_TagNotFound() {
         Long tagId = -1L; // Non-existing tag ID
 
-        // Mock non-existing tag
-        when(tagRepository.existsById(tagId)).thenReturn(false);
+        // Mock non-existing tag, no row is deleted
+        when(tagRepository.deleteByIds(List.of(tagId))).thenReturn(0);
 
         TagValidationException exception = assertThrows(TagValidationException.class, () -> tagService.deleteTag(tagId));
 
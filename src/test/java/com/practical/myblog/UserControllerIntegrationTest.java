@@ -0,0 +1,111 @@
+package com.practical.myblog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practical.myblog.dto.AuthenticationResponseDTO;
+import com.practical.myblog.dto.RefreshTokenRequestDTO;
+import com.practical.myblog.dto.UserRequestDTO;
+import com.practical.myblog.repository.TokenRepository;
+import com.practical.myblog.repository.UserRepository;
+import com.practical.myblog.util.ErrorMessages;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Testcontainers
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserControllerIntegrationTest {
+
+    @Container
+    static MySQLContainer<?> mySQLContainer = new MySQLContainer<>("mysql:8.0.33")
+            .withDatabaseName("testdb")
+            .withUsername("user")
+            .withPassword("password");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    // Dynamically register the MySQL properties for the Spring Boot context
+    @DynamicPropertySource
+    static void registerMySQLProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mySQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", mySQLContainer::getUsername);
+        registry.add("spring.datasource.password", mySQLContainer::getPassword);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should reject the refresh token of a session after logout")
+    void refresh_AfterLogout() throws Exception {
+        AuthenticationResponseDTO tokens = register("alice");
+
+        mockMvc.perform(post("/users/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getToken()))
+                .andExpect(status().isOk());
+
+        refresh(tokens.getRefreshToken())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(ErrorMessages.INVALID_REFRESH_TOKEN));
+        mockMvc.perform(get("/users/demo").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getToken()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Should revoke the rotated tokens when a used refresh token is sent again")
+    void refresh_ReusedToken() throws Exception {
+        AuthenticationResponseDTO tokens = register("bob");
+
+        String body = refresh(tokens.getRefreshToken())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        AuthenticationResponseDTO rotated = objectMapper.readValue(body, AuthenticationResponseDTO.class);
+
+        refresh(tokens.getRefreshToken())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(ErrorMessages.INVALID_REFRESH_TOKEN));
+        // The reuse may come from a stolen token, so the tokens issued by the rotation are revoked as well
+        refresh(rotated.getRefreshToken())
+                .andExpect(status().isBadRequest());
+    }
+
+    private AuthenticationResponseDTO register(String username) throws Exception {
+        var request = new UserRequestDTO(username, "password", username);
+        String body = mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, AuthenticationResponseDTO.class);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/users/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(refreshToken))));
+    }
+}
@@ -0,0 +1,164 @@
+package com.practical.myblog.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.practical.myblog.logging.RequestSummaryFilter;
+import com.practical.myblog.model.Role;
+import com.practical.myblog.model.Token;
+import com.practical.myblog.model.User;
+import com.practical.myblog.repository.TokenRepository;
+import com.practical.myblog.security.JwtAuthenticationFilter;
+import com.practical.myblog.security.JwtService;
+import com.practical.myblog.security.TokenValidityCache;
+import com.practical.myblog.service.PostServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of an authenticated GET request through RequestSummaryFilter, JwtAuthenticationFilter
+ * and a handler logging like the post service, with the log written to a file.
+ * level=DEBUG with appender=sync is the old setup (the hot-path lines were INFO and written synchronously),
+ * level=INFO with appender=async is the current one.
+ * Run the main method, results are printed in requests per millisecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthenticatedRequestLoggingBenchmark {
+
+    private static final String SECRET_KEY = "pTynyImk49q0mVe9XfEIatr1xve90tXcn6LewDLpuU/fdmXWbkiD7n9IUgPp/fQX";
+    private static final org.slf4j.Logger serviceLog = LoggerFactory.getLogger(PostServiceImpl.class);
+
+    @Param({"DEBUG", "INFO"})
+    private String level;
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private Path logFile;
+    private String authorizationHeader;
+    private RequestSummaryFilter requestSummaryFilter;
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private HttpServlet handler;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("myblog-benchmark", ".log");
+        configureLogging();
+
+        var jwtService = new JwtService(SECRET_KEY, 86400000, 1209600000, false, 900000);
+        var user = User.builder()
+                .username("benchmark")
+                .password("password")
+                .displayName("Benchmark")
+                .role(Role.USER)
+                .build();
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+
+        // Stored token state is served from the token validity cache after the first request
+        var tokenRepository = mock(TokenRepository.class);
+        when(tokenRepository.findByTokenHash(any())).thenReturn(Optional.of(Token.builder().expired(false).revoked(false).build()));
+        var tokenValidityCache = new TokenValidityCache(tokenRepository, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10), 86400000);
+
+        requestSummaryFilter = new RequestSummaryFilter(0.01);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService, username -> user, tokenValidityCache);
+        handler = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                serviceLog.debug("Retrieving post with id: {}", 1L);
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        var context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).detachAndStopAllAppenders();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public int authenticatedGet() throws Exception {
+        var request = new MockHttpServletRequest("GET", "/myblog/posts/1");
+        request.addHeader("Authorization", authorizationHeader);
+        var response = new MockHttpServletResponse();
+        try {
+            new MockFilterChain(handler, requestSummaryFilter, jwtAuthenticationFilter).doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+
+    private void configureLogging() {
+        var context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        var encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %level [%thread] %logger{40} - %msg%n");
+        encoder.start();
+
+        var fileAppender = new FileAppender<ILoggingEvent>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(logFile.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> rootAppender = fileAppender;
+        if ("async".equals(appender)) {
+            // Same settings as logback-spring.xml
+            var asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setDiscardingThreshold(0);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(fileAppender);
+            asyncAppender.start();
+            rootAppender = asyncAppender;
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(rootAppender);
+        root.setLevel(Level.WARN);
+        context.getLogger("com.practical.myblog").setLevel(Level.toLevel(level));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthenticatedRequestLoggingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.practical.myblog.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.practical.myblog.model.Role;
+import com.practical.myblog.model.User;
+import com.practical.myblog.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT verification in JwtAuthenticationFilter.
+ * legacyTriplePass reproduces the old flow (key decoded, parser built and signature checked
+ * for extractUsername, isTokenValid and extractExpiration), singlePass is the current flow.
+ * Run the main method, results are printed in microseconds per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET_KEY = "pTynyImk49q0mVe9XfEIatr1xve90tXcn6LewDLpuU/fdmXWbkiD7n9IUgPp/fQX";
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // Console logging would dominate the measurement
+        ((Logger) LoggerFactory.getLogger("com.practical.myblog")).setLevel(Level.WARN);
+        jwtService = new JwtService(SECRET_KEY, 86400000, 1209600000, false, 900000);
+        user = User.builder()
+                .username("benchmark")
+                .password("password")
+                .displayName("Benchmark")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyTriplePass() {
+        String username = legacyParse(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyParse(token).getSubject().equals(user.getUsername())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singlePass() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return claims.getSubject().equals(user.getUsername())
+                && jwtService.isTokenValid(claims, user);
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts
+                .parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.practical.myblog.benchmark;
+
+import com.practical.myblog.dto.PostResponseDTO;
+import com.practical.myblog.mapper.PostMapper;
+import com.practical.myblog.model.Post;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping 1,000 posts to PostResponseDTO.
+ * modelMapper is the old reflective mapping, generatedMapper is PostMapper and
+ * projection is what the constructor expressions in PostRepository do per row.
+ * Run the main method, results are printed in microseconds per 1,000 rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MappingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private ModelMapper modelMapper;
+    private PostMapper postMapper;
+    private List<Post> posts;
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        postMapper = Mappers.getMapper(PostMapper.class);
+        posts = new ArrayList<>(ROWS);
+        rows = new ArrayList<>(ROWS);
+        for (long id = 1; id <= ROWS; id++) {
+            posts.add(new Post(id, "Title " + id, "Text " + id, new HashSet<>(), "image" + id, "video" + id));
+            rows.add(new Object[]{id, "Title " + id, "Text " + id, "image" + id, "video" + id});
+        }
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> modelMapper() {
+        List<PostResponseDTO> result = new ArrayList<>(ROWS);
+        for (Post post : posts) {
+            result.add(modelMapper.map(post, PostResponseDTO.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> generatedMapper() {
+        return postMapper.toResponses(posts);
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> projection() {
+        List<PostResponseDTO> result = new ArrayList<>(ROWS);
+        for (Object[] row : rows) {
+            result.add(new PostResponseDTO((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4]));
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}